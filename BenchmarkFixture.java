@@ -0,0 +1,187 @@
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Self-contained benchmark data: one company, artist and venue owning a set of customers, concerts and
+// already sold tickets. Everything hangs off the company and customer rows, so remove() deletes it all
+// through the schema's ON DELETE CASCADE keys. Seeds a throwaway concerttix database, never production.
+class BenchmarkFixture {
+
+    static final String[] TIERS = {"Bench Gold", "Bench Silver", "Bench Bronze"};
+    static final BigDecimal[] TIER_PRICES = {new BigDecimal("5000.00"), new BigDecimal("3000.00"), new BigDecimal("1000.00")};
+    static final int BATCH_SIZE = 1000;
+
+    final String runId;
+    final Random random;
+    int companyCode;
+    int artistCode;
+    int venueCode;
+    final List<Integer> customerCodes = new ArrayList<>();
+    final List<Integer> concertCodes = new ArrayList<>();
+
+    BenchmarkFixture(long seed) {
+        this.runId = Long.toString(System.currentTimeMillis(), 36);
+        this.random = new Random(seed);
+    }
+
+    void createOwners(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Companies (company_name, status) VALUES ('Benchmark " + runId + "', 'active')",
+                    Statement.RETURN_GENERATED_KEYS);
+            companyCode = key(stmt);
+            stmt.executeUpdate("INSERT INTO Artists (company_code, stage_name, genre) VALUES (" + companyCode
+                    + ", 'Benchmark Artist', 'Test')", Statement.RETURN_GENERATED_KEYS);
+            artistCode = key(stmt);
+            stmt.executeUpdate("INSERT INTO Venues (venue_name, city, total_seating_capacity) VALUES ('Benchmark Arena "
+                    + runId + "', 'Test City', 1000000)", Statement.RETURN_GENERATED_KEYS);
+            venueCode = key(stmt);
+        }
+    }
+
+    void createCustomers(Connection connection, int count) throws SQLException {
+        String insertCustomerQuery = """
+        INSERT INTO Customers (first_name, last_name, birth_date, email, contact_number)
+        VALUES (?, ?, ?, ?, ?);
+        """;
+        try (PreparedStatement ps = connection.prepareStatement(insertCustomerQuery, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < count; i++) {
+                ps.setString(1, "Bench");
+                ps.setString(2, "Customer " + i);
+                ps.setDate(3, Date.valueOf(LocalDate.of(1970 + random.nextInt(35), 1 + random.nextInt(12), 1 + random.nextInt(28))));
+                ps.setString(4, "bench-" + runId + "-" + i + "@example.com");
+                ps.setString(5, "0900000000");
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i == count - 1) {
+                    ps.executeBatch();
+                    collectKeys(ps, customerCodes);
+                }
+            }
+        }
+    }
+
+    // Creates a concert dated this year with TIERS price tiers and soldTickets single-ticket purchases,
+    // leaving room for at least headroom more sales
+    int createConcert(Connection connection, int soldTickets, int headroom) throws SQLException {
+        int perTier = (soldTickets + headroom) / TIERS.length + 1;
+        int capacity = perTier * TIERS.length;
+        LocalDate concertDate = LocalDate.now().withDayOfYear(1 + random.nextInt(LocalDate.now().lengthOfYear()));
+
+        String insertConcertQuery = """
+        INSERT INTO Concerts (artist_code, venue_code, concert_title, performer_name, entry_restrictions,
+                              concert_date, tickets_available, seating_capacity, status)
+        VALUES (?, ?, ?, 'Benchmark Artist', 'G', ?, ?, ?, 'approved');
+        """;
+        int concertCode;
+        try (PreparedStatement ps = connection.prepareStatement(insertConcertQuery, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, artistCode);
+            ps.setInt(2, venueCode);
+            ps.setString(3, "Benchmark " + runId + " #" + concertCodes.size());
+            ps.setDate(4, Date.valueOf(concertDate));
+            ps.setInt(5, capacity - soldTickets);
+            ps.setInt(6, capacity);
+            ps.executeUpdate();
+            concertCode = key(ps);
+        }
+        concertCodes.add(concertCode);
+
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO Prices (ticket_type, concert_code, price) VALUES (?, ?, ?)")) {
+            for (int tier = 0; tier < TIERS.length; tier++) {
+                ps.setString(1, TIERS[tier]);
+                ps.setInt(2, concertCode);
+                ps.setBigDecimal(3, TIER_PRICES[tier]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        // Sections follow SeatLayout's derived plan: tiers by price descending, perTier seats each, rows of 50
+        for (int start = 0; start < soldTickets; start += BATCH_SIZE) {
+            int end = Math.min(soldTickets, start + BATCH_SIZE);
+            List<Integer> transactionCodes = new ArrayList<>(end - start);
+            String insertTransactionQuery = """
+            INSERT INTO Transactions (customer_code, transaction_type, transaction_date, total_amount, payment_method)
+            VALUES (?, 'buy', ?, ?, 'card');
+            """;
+            try (PreparedStatement ps = connection.prepareStatement(insertTransactionQuery, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = start; i < end; i++) {
+                    ps.setInt(1, randomCustomer());
+                    ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(60 * 24 * 180))));
+                    ps.setBigDecimal(3, TIER_PRICES[i % TIERS.length]);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                collectKeys(ps, transactionCodes);
+            }
+
+            String insertTicketQuery = """
+            INSERT INTO Tickets (concert_code, transaction_code, ticket_type, seat_number, ticket_price)
+            VALUES (?, ?, ?, ?, ?);
+            """;
+            try (PreparedStatement ps = connection.prepareStatement(insertTicketQuery)) {
+                for (int i = start; i < end; i++) {
+                    int tier = i % TIERS.length;
+                    int offset = i / TIERS.length;
+                    ps.setInt(1, concertCode);
+                    ps.setInt(2, transactionCodes.get(i - start));
+                    ps.setString(3, TIERS[tier]);
+                    ps.setString(4, (tier + 1) + "-" + (offset / SeatLayout.DEFAULT_SEATS_PER_ROW + 1)
+                            + "-" + (offset % SeatLayout.DEFAULT_SEATS_PER_ROW + 1));
+                    ps.setBigDecimal(5, TIER_PRICES[tier]);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+        return concertCode;
+    }
+
+    int randomCustomer() {
+        return customerCodes.get(random.nextInt(customerCodes.size()));
+    }
+
+    int randomConcert() {
+        return concertCodes.get(random.nextInt(concertCodes.size()));
+    }
+
+    // Customers cascade to their transactions, tickets and refunds; the company to artists, concerts and prices
+    void remove(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("DELETE FROM Customers WHERE email LIKE ?")) {
+            ps.setString(1, "bench-" + runId + "-%");
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = connection.prepareStatement("DELETE FROM Companies WHERE company_code = ?")) {
+            ps.setInt(1, companyCode);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = connection.prepareStatement("DELETE FROM Venues WHERE venue_code = ?")) {
+            ps.setInt(1, venueCode);
+            ps.executeUpdate();
+        }
+        SalesRollup.rebuild(connection);
+    }
+
+    private static int key(Statement stmt) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            keys.next();
+            return keys.getInt(1);
+        }
+    }
+
+    private static void collectKeys(Statement stmt, List<Integer> into) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            while (keys.next()) {
+                into.add(keys.getInt(1));
+            }
+        }
+    }
+}
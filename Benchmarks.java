@@ -0,0 +1,122 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+
+// One benchmark dataset: a local concerttix database seeded with datasetTickets already sold tickets, and the
+// services the JMH suite in src/jmh/java (concerttix.bench) measures against it. JMH cannot generate code
+// for benchmarks in the default package, so the suite reaches this class reflectively, once per trial, and
+// gets each measured call back as a Callable. Connection settings come from -Dconcerttix.bench.* properties.
+public class Benchmarks implements AutoCloseable {
+
+    static final String HOST = System.getProperty("concerttix.bench.host", "localhost:3306");
+    static final String USER = System.getProperty("concerttix.bench.user", "root");
+    static final String PASSWORD = System.getProperty("concerttix.bench.password", "");
+    static final long SEED = Long.getLong("concerttix.bench.seed", 42L);
+    // Free seats per concert left for the sales the benchmarks make; JMH runs for a time, not a call count
+    static final int HEADROOM = Integer.getInteger("concerttix.bench.headroom", 20_000);
+
+    private final ConnectionPool pool;
+    private final BenchmarkFixture fixture = new BenchmarkFixture(SEED);
+    private final int datasetTickets;
+    private final int concerts;
+    private final ReportCache reportCache = new ReportCache();
+    private final TicketingService service;
+    private final ConcertReports reports;
+    private final int year = LocalDate.now().getYear();
+
+    public Benchmarks(int datasetTickets) throws SQLException {
+        this.datasetTickets = datasetTickets;
+        this.concerts = Math.max(10, datasetTickets / 2000);
+        pool = MyJDBC.createPool(HOST, USER, PASSWORD, MyJDBC.POOL_MAX_SIZE);
+        try (Connection connection = pool.getConnection()) {
+            fixture.createOwners(connection);
+            fixture.createCustomers(connection, Math.max(1000, datasetTickets / 5));
+            for (int i = 0; i < concerts; i++) {
+                fixture.createConcert(connection, datasetTickets / concerts, HEADROOM);
+            }
+            SalesRollup.rebuild(connection);
+        } catch (SQLException e) {
+            pool.close();
+            throw e;
+        }
+        service = new TicketingService(pool, new SeatMaps(pool), reportCache,
+                new ReferenceDataCache(pool), new EligibilityIndex(pool), new SeatHolds());
+        reports = new ConcertReports(pool, reportCache);
+    }
+
+    // Does the untimed setup of one call of the named benchmark and returns the call to time
+    public Callable<?> prepare(String benchmark) throws SQLException {
+        switch (benchmark) {
+            case "sellTickets": {
+                int concertCode = fixture.randomConcert();
+                String tier = BenchmarkFixture.TIERS[fixture.random.nextInt(BenchmarkFixture.TIERS.length)];
+                TicketingService.SaleRequest request = new TicketingService.SaleRequest(fixture.randomCustomer(),
+                        concertCode, tier, service.seatMap(concertCode).freeSeats(tier, 1), "card");
+                return () -> check(service.sellTickets(request));
+            }
+            case "refundTickets": {
+                int customerCode = fixture.randomCustomer();
+                int[] tickets = sellBlock(customerCode, 10);
+                return () -> check(service.refundTickets(new TicketingService.RefundRequest(customerCode, tickets, "card")));
+            }
+            case "transferTickets": {
+                int fromCustomer = fixture.randomCustomer();
+                int toCustomer = fixture.randomCustomer();
+                int[] tickets = sellBlock(fromCustomer, 5);
+                return () -> check(service.transferTickets(
+                        new TicketingService.TransferRequest(fromCustomer, toCustomer, tickets, "card")));
+            }
+            case "cancelConcert": {
+                // Each cancellation needs its own concert, sized like the others in this dataset
+                int concertCode;
+                try (Connection connection = pool.getConnection()) {
+                    concertCode = fixture.createConcert(connection, datasetTickets / concerts, 0);
+                }
+                return () -> check(service.cancelConcert(concertCode));
+            }
+        }
+        // The cache is cleared before every report call so each measurement runs the query
+        reportCache.invalidateAll();
+        switch (benchmark) {
+            case "annualSales":
+                return () -> reports.annualSalesData(year);
+            case "concertAnalysis":
+                return () -> reports.concertAnalysisData(year);
+            case "topSales":
+                return () -> reports.topSalesData(year);
+            case "customerEngagement":
+                return () -> reports.customerEngagementData(year);
+            default:
+                throw new IllegalArgumentException("Unknown benchmark: " + benchmark);
+        }
+    }
+
+    private int[] sellBlock(int customerCode, int quantity) throws SQLException {
+        String tier = BenchmarkFixture.TIERS[fixture.random.nextInt(BenchmarkFixture.TIERS.length)];
+        TicketingService.SaleResult sale = service.sellBestAvailable(new TicketingService.BestAvailableRequest(
+                customerCode, fixture.randomConcert(), tier, quantity, "card"));
+        if (!sale.succeeded()) {
+            throw new SQLException("Benchmark setup sale failed: " + sale.message());
+        }
+        return sale.ticketCodes().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // A failed call fails the benchmark rather than being timed as if it had done the work
+    private static Object check(TicketingService.Outcome outcome) throws SQLException {
+        if (!outcome.succeeded()) {
+            throw new SQLException(outcome.status() + ": " + outcome.message());
+        }
+        return outcome;
+    }
+
+    // Removes the dataset and closes its connections
+    @Override
+    public void close() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            fixture.remove(connection);
+        } finally {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bulk loads customers, concerts, prices, transactions and tickets from CSV files into a concerttix database.
+// Each file is named after its table (customers.csv, concerts.csv, prices.csv, transactions.csv, tickets.csv),
+// starts with a header row naming the columns it carries, and is loaded in foreign key order; missing files
+// are skipped. Key columns (customer_code, concert_code, transaction_code, ticket_code) are inserted as given,
+// so references between the files stay valid. Artists and venues referenced by concerts must already exist.
+// Fields may be quoted with "..." (doubled "" inside) but may not span lines; an empty field loads as NULL.
+//   java -cp .:mysql-connector-j.jar -Dconcerttix.import.writers=8 BulkImporter /path/to/csv-dir
+// Chunks of BATCH_SIZE lines are parsed and inserted by WRITERS threads, each on its own pooled connection,
+// as one batched statement that rewriteBatchedStatements sends as a multi-row INSERT, committed per chunk.
+// A failed import leaves the chunks committed so far; rerun with ignoreDuplicates=true to resume it.
+public class BulkImporter {
+
+    static final int WRITERS = Integer.getInteger("concerttix.import.writers", 4);
+    static final int BATCH_SIZE = Integer.getInteger("concerttix.import.batchSize", 5000);
+    static final boolean IGNORE_DUPLICATES = Boolean.getBoolean("concerttix.import.ignoreDuplicates");
+
+    // In foreign key order: tickets reference concerts and transactions, transactions reference customers
+    private static final List<Table> TABLES = List.of(
+            new Table("Customers", "customers.csv",
+                    "customer_code", "first_name", "last_name", "birth_date", "email", "contact_number"),
+            new Table("Concerts", "concerts.csv",
+                    "concert_code", "artist_code", "venue_code", "concert_title", "performer_name",
+                    "entry_restrictions", "concert_date", "tickets_available", "seating_capacity", "status"),
+            new Table("Prices", "prices.csv",
+                    "ticket_type", "concert_code", "price"),
+            new Table("Transactions", "transactions.csv",
+                    "transaction_code", "customer_code", "transaction_type", "transaction_date", "total_amount",
+                    "payment_method"),
+            new Table("Tickets", "tickets.csv",
+                    "ticket_code", "concert_code", "transaction_code", "ticket_type", "seat_number", "ticket_price"));
+
+    private record Table(String name, String fileName, String... columns) {
+    }
+
+    public record ImportResult(String table, long rows, double seconds) {
+
+        double rowsPerSecond() {
+            return seconds == 0 ? 0.0 : rows / seconds;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: java BulkImporter <directory with customers.csv, concerts.csv, ...>");
+            System.exit(2);
+        }
+        Path directory = Path.of(args[0]);
+
+        List<ImportResult> results = new ArrayList<>();
+        long started = System.nanoTime();
+        try (ConnectionPool pool = MyJDBC.createPool(Benchmarks.HOST, Benchmarks.USER, Benchmarks.PASSWORD, WRITERS)) {
+            for (Table table : TABLES) {
+                Path file = directory.resolve(table.fileName());
+                if (!Files.exists(file)) {
+                    System.out.println("Skipping " + table.name() + ": no " + file);
+                    continue;
+                }
+                ImportResult result = importFile(pool, table, file);
+                results.add(result);
+                System.out.printf("%-12s %,12d rows in %8.2f s  (%,.0f rows/s)%n", result.table(), result.rows(),
+                        result.seconds(), result.rowsPerSecond());
+            }
+
+            // Imported tickets start their ownership history and imported transactions count towards MonthlySales
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+                int ledgerRows = OwnershipLedger.backfill(connection);
+                SalesRollup.rebuild(connection);
+                connection.commit();
+                System.out.println("Ownership ledger entries added: " + ledgerRows + "; monthly sales rollup rebuilt.");
+            }
+        }
+
+        long rows = results.stream().mapToLong(ImportResult::rows).sum();
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        System.out.printf("Imported %,d rows in %.2f s (%,.0f rows/s overall)%n", rows, seconds, rows / seconds);
+        System.exit(0);
+    }
+
+    static ImportResult importFile(ConnectionPool pool, Table table, Path file) throws IOException, SQLException {
+        long started = System.nanoTime();
+        LongAdder rows = new LongAdder();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        // Bounds the chunks read ahead of the writers, so memory does not grow with the file
+        Semaphore inFlight = new Semaphore(WRITERS * 2);
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS, runnable -> {
+            Thread thread = new Thread(runnable, "import-" + table.name().toLowerCase());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new ImportResult(table.name(), 0, 0.0);
+            }
+            String[] columns = columnsOf(table, file, header);
+            String insertQuery = (IGNORE_DUPLICATES ? "INSERT IGNORE INTO " : "INSERT INTO ") + table.name()
+                    + " (" + String.join(", ", columns) + ") VALUES (" + MyJDBC.placeholders(columns.length) + ")";
+
+            long lineNumber = 1;
+            long firstLine = 0;
+            List<String> chunk = new ArrayList<>(BATCH_SIZE);
+            String line;
+            while (failure.get() == null && (line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (chunk.isEmpty()) {
+                    firstLine = lineNumber;
+                }
+                chunk.add(line);
+                if (chunk.size() == BATCH_SIZE) {
+                    submit(pool, writers, inFlight, failure, rows, insertQuery, columns.length, chunk, firstLine);
+                    chunk = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!chunk.isEmpty() && failure.get() == null) {
+                submit(pool, writers, inFlight, failure, rows, insertQuery, columns.length, chunk, firstLine);
+            }
+        } finally {
+            writers.shutdown();
+            try {
+                writers.awaitTermination(1, TimeUnit.DAYS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Exception error = failure.get();
+        if (error instanceof SQLException e) {
+            throw new SQLException("Import of " + file + " stopped after " + rows.sum() + " row(s): " + e.getMessage(), e);
+        }
+        if (error != null) {
+            throw new IOException("Import of " + file + " stopped after " + rows.sum() + " row(s): " + error.getMessage(), error);
+        }
+        return new ImportResult(table.name(), rows.sum(), (System.nanoTime() - started) / 1_000_000_000.0);
+    }
+
+    // The header may list any of the table's columns in any order; anything else is a mistake in the file
+    private static String[] columnsOf(Table table, Path file, String header) throws IOException {
+        String[] columns = parseLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        List<String> allowed = Arrays.asList(table.columns());
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columns[i] == null ? "" : columns[i].trim().toLowerCase();
+            if (!allowed.contains(columns[i])) {
+                throw new IOException(file + ": unknown column '" + columns[i] + "' for " + table.name()
+                        + " (expected any of " + String.join(", ", table.columns()) + ")");
+            }
+        }
+        return columns;
+    }
+
+    private static void submit(ConnectionPool pool, ExecutorService writers, Semaphore inFlight, AtomicReference<Exception> failure,
+                               LongAdder rows, String insertQuery, int columnCount, List<String> lines,
+                               long firstLine) throws IOException {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading the import file.");
+        }
+        writers.execute(() -> {
+            try {
+                if (failure.get() == null) {
+                    rows.add(writeChunk(pool, insertQuery, columnCount, lines, firstLine));
+                }
+            } catch (IOException | SQLException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private static int writeChunk(ConnectionPool pool, String insertQuery, int columnCount, List<String> lines, long firstLine)
+            throws IOException, SQLException {
+        // Parsed on the writer thread, so parsing runs in parallel with the other chunks
+        List<String[]> parsed = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String[] fields = parseLine(lines.get(i));
+            if (fields.length != columnCount) {
+                throw new IOException("Row " + (i + 1) + " of the chunk starting at line " + firstLine + ": expected "
+                        + columnCount + " field(s), found " + fields.length + ".");
+            }
+            parsed.add(fields);
+        }
+
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(insertQuery)) {
+                for (String[] fields : parsed) {
+                    for (int i = 0; i < fields.length; i++) {
+                        if (fields[i] == null) {
+                            ps.setNull(i + 1, Types.VARCHAR);
+                        } else {
+                            ps.setString(i + 1, fields[i]); // MySQL converts to the column's type
+                        }
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Chunk starting at line " + firstLine + ": " + e.getMessage(),
+                        e.getSQLState(), e.getErrorCode(), e);
+            }
+        }
+        return parsed.size();
+    }
+
+    // Splits one CSV line; an unquoted empty field is null, a quoted one ("") is the empty string
+    static String[] parseLine(String line) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field in: " + line);
+        }
+        fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -1,19 +1,19 @@
 import java.sql.*;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.text.SimpleDateFormat;
 
 public class ConcertRecords {
 
-    Connection connection;
-    Statement statement;
+    // Rows per page on the concert and customer record screens
+    static final int RECORD_PAGE_SIZE = Math.max(1, Integer.getInteger("concerttix.records.pageSize", 20));
 
-    public ConcertRecords(Connection connection) {
-        this.connection = connection;
-        try {
-            statement = connection.createStatement();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    ConnectionPool pool;
+    ReferenceDataCache referenceData;
+
+    public ConcertRecords(ConnectionPool pool, ReferenceDataCache referenceData) {
+        this.pool = pool;
+        this.referenceData = referenceData;
     }
 
     // Handles the record menu
@@ -72,61 +72,71 @@ public class ConcertRecords {
         System.out.println("\n--- Concert Record ---");
         int concertId = MyJDBC.getUserInput("Enter Concert ID to view: ");
 
-        String query = """
-    SELECT\s
-        Concerts.concert_code,
-        Concerts.performer_name,
-        Concerts.concert_title,
-        Concerts.entry_restrictions,
-        Venues.venue_name,
-        Concerts.concert_date,
-        Concerts.tickets_available
-    FROM Concerts
-    JOIN Venues ON Concerts.venue_code = Venues.venue_code
-    WHERE Concerts.concert_code = ?;
-   \s""";
-
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        // Concert details come from the reference data cache; only the live inventory count is read here
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT tickets_available FROM Concerts WHERE concert_code = ?")) {
+            ReferenceDataCache.ConcertInfo concert = referenceData.concert(connection, concertId);
+            if (concert == null) {
+                System.out.println("No concert found for the given Concert ID.");
+                return;
+            }
             stmt.setInt(1, concertId);
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    System.out.println("Concert Title: " + rs.getString("concert_title"));
-                    System.out.printf("\nConcert Code: %d\n", rs.getInt("concert_code"));
-                    System.out.println("Performer(s): " + rs.getString("performer_name"));
-                    System.out.println("Entry Restrictions: " + rs.getString("entry_restrictions"));
-                    System.out.println("Venue: " + rs.getString("venue_name"));
-                    System.out.println("Date: " + rs.getDate("concert_date"));
-                    System.out.println("Tickets Available: " + rs.getInt("tickets_available"));
+                System.out.println("Concert Title: " + concert.concertTitle());
+                System.out.printf("\nConcert Code: %d\n", concert.concertCode());
+                System.out.println("Performer(s): " + concert.performerName());
+                System.out.println("Entry Restrictions: " + concert.entryRestrictions());
+                System.out.println("Venue: " + concert.venueName());
+                System.out.println("Date: " + concert.concertDate());
+                System.out.println("Tickets Available: " + (rs.next() ? rs.getInt("tickets_available") : 0));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching concert record: " + e.getMessage());
+            return;
+        }
 
-                    // Updated query to correctly fetch customers who bought tickets
-                    String customerQuery = """
-                SELECT Customers.first_name, Customers.last_name
-                FROM Customers
-                JOIN Transactions ON Customers.customer_code = Transactions.customer_code
-                JOIN Tickets ON Transactions.transaction_code = Tickets.transaction_code
-                WHERE Tickets.concert_code = ?;
-                """;
+        // One page of buyers at a time, continuing after the last ticket shown (idx_tickets_concert_ticket)
+        String customerQuery = """
+        SELECT Tickets.ticket_code, Tickets.seat_number, Customers.first_name, Customers.last_name
+        FROM Tickets
+        JOIN Transactions ON Transactions.transaction_code = Tickets.transaction_code
+        JOIN Customers ON Customers.customer_code = Transactions.customer_code
+        WHERE Tickets.concert_code = ? AND Tickets.ticket_code > ?
+        ORDER BY Tickets.ticket_code
+        LIMIT ?;
+        """;
 
-                    try (PreparedStatement customerStmt = connection.prepareStatement(customerQuery)) {
-                        customerStmt.setInt(1, concertId);
-                        try (ResultSet customerRs = customerStmt.executeQuery()) {
-                            System.out.println("\n--- Customers Who Bought Tickets ---");
-                            boolean hasCustomers = false;
-                            while (customerRs.next()) {
-                                hasCustomers = true;
-                                System.out.println(customerRs.getString("first_name") + " " + customerRs.getString("last_name"));
-                            }
-                            if (!hasCustomers) {
-                                System.out.println("No customers have purchased tickets for this concert.");
-                            }
-                        }
+        System.out.println("\n--- Customers Who Bought Tickets ---");
+        int lastTicketCode = 0;
+        int shown = 0;
+        boolean morePages = true;
+        while (morePages) {
+            int rows = 0;
+            // A connection per page, so none is held while the user reads
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement customerStmt = connection.prepareStatement(customerQuery)) {
+                customerStmt.setInt(1, concertId);
+                customerStmt.setInt(2, lastTicketCode);
+                customerStmt.setInt(3, RECORD_PAGE_SIZE + 1); // One extra row tells whether another page exists
+                try (ResultSet customerRs = customerStmt.executeQuery()) {
+                    while (rows < RECORD_PAGE_SIZE && customerRs.next()) {
+                        rows++;
+                        lastTicketCode = customerRs.getInt("ticket_code");
+                        System.out.printf("Ticket Code: %d | Seat: %s | %s %s\n", lastTicketCode,
+                                customerRs.getString("seat_number"), customerRs.getString("first_name"),
+                                customerRs.getString("last_name"));
                     }
-                } else {
-                    System.out.println("No concert found for the given Concert ID.");
+                    morePages = rows == RECORD_PAGE_SIZE && customerRs.next();
                 }
+            } catch (SQLException e) {
+                System.err.println("Error fetching concert customers: " + e.getMessage());
+                return;
             }
-        } catch (SQLException e) {
-            System.err.println("Error fetching concert record: " + e.getMessage());
+            shown += rows;
+            if (shown == 0) {
+                System.out.println("No customers have purchased tickets for this concert.");
+            }
+            morePages = morePages && showNextPage(shown);
         }
     }
 
@@ -134,48 +144,92 @@ public class ConcertRecords {
         System.out.println("\n--- Customer Record ---");
         int customerId = MyJDBC.getUserInput("Enter Customer ID to view: ");
 
-        // Updated query to join Customers, Transactions, and Tickets based on the new schema
         String query = """
-        SELECT 
-            Customers.customer_code, Customers.first_name, Customers.last_name, Customers.email, Customers.contact_number,
-            Tickets.ticket_code, Tickets.seat_number, Transactions.transaction_type
+        SELECT customer_code, first_name, last_name, email, contact_number
         FROM Customers
-        LEFT JOIN Transactions ON Customers.customer_code = Transactions.customer_code
-        LEFT JOIN Tickets ON Transactions.transaction_code = Tickets.transaction_code
-        WHERE Customers.customer_code = ?;
+        WHERE customer_code = ?;
     """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setInt(1, customerId);
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    // Print customer details
-                    System.out.printf("\nCustomer ID: %d\nName: %s %s\nEmail: %s\nContact: %s\n",
-                            rs.getInt("customer_code"), rs.getString("first_name"), rs.getString("last_name"),
-                            rs.getString("email"), rs.getString("contact_number"));
+                if (!rs.next()) {
+                    System.out.println("No customer record found for the given ID.");
+                    return;
+                }
+                // Print customer details
+                System.out.printf("\nCustomer ID: %d\nName: %s %s\nEmail: %s\nContact: %s\n",
+                        rs.getInt("customer_code"), rs.getString("first_name"), rs.getString("last_name"),
+                        rs.getString("email"), rs.getString("contact_number"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching customer record: " + e.getMessage());
+            return;
+        }
+
+        // Every ticket the customer has held, from the ownership ledger in (ticket_code, seq) order; each page
+        // continues after the last entry shown (idx_ownership_customer_ticket)
+        String ticketQuery = """
+        SELECT o.ticket_code, o.seq, o.event_type, Tickets.seat_number
+        FROM TicketOwnership o
+        JOIN Tickets ON Tickets.ticket_code = o.ticket_code
+        WHERE o.customer_code = ?
+          AND (o.ticket_code > ? OR (o.ticket_code = ? AND o.seq > ?))
+        ORDER BY o.ticket_code, o.seq
+        LIMIT ?;
+    """;
 
-                    System.out.println("\n--- Tickets Owned ---");
-                    do {
+        System.out.println("\n--- Tickets Owned ---");
+        int lastTicketCode = 0;
+        int lastSeq = 0;
+        int shown = 0;
+        boolean morePages = true;
+        while (morePages) {
+            int rows = 0;
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(ticketQuery)) {
+                stmt.setInt(1, customerId);
+                stmt.setInt(2, lastTicketCode);
+                stmt.setInt(3, lastTicketCode);
+                stmt.setInt(4, lastSeq);
+                stmt.setInt(5, RECORD_PAGE_SIZE + 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rows < RECORD_PAGE_SIZE && rs.next()) {
+                        rows++;
+                        lastTicketCode = rs.getInt("ticket_code");
+                        lastSeq = rs.getInt("seq");
                         // Retrieve seat_number as a String to handle alphanumeric seat identifiers
                         String seatNumber = rs.getString("seat_number");
                         System.out.printf("Ticket Code: %d | Seat: %s | Transaction Type: %s\n",
-                                rs.getInt("ticket_code"), seatNumber, rs.getString("transaction_type"));
-                    } while (rs.next()); // Iterate through all tickets
-                } else {
-                    System.out.println("No customer record found for the given ID.");
+                                lastTicketCode, seatNumber, rs.getString("event_type"));
+                    }
+                    morePages = rows == RECORD_PAGE_SIZE && rs.next();
                 }
+            } catch (SQLException e) {
+                System.err.println("Error fetching customer tickets: " + e.getMessage());
+                return;
             }
-        } catch (SQLException e) {
-            System.err.println("Error fetching customer record: " + e.getMessage());
+            shown += rows;
+            if (shown == 0) {
+                System.out.println("This customer has not held any tickets.");
+            }
+            morePages = morePages && showNextPage(shown);
         }
     }
 
+    // Asked only when another page exists; the next page is not queried unless the user wants it
+    private boolean showNextPage(int shown) {
+        String answer = MyJDBC.getUserStringInput("Shown " + shown + " so far. Show next page? (Y/N): ");
+        return answer.equalsIgnoreCase("y");
+    }
+
     private void transactionRecord() {
         System.out.println("\n--- Transaction Record ---");
 
         int transactionCode = MyJDBC.getUserInput("Enter Transaction Code to view: ");
         String query = """
-        SELECT 
+        SELECT
             Transactions.transaction_code,
             Transactions.transaction_type,
             Transactions.transaction_date,
@@ -187,7 +241,8 @@ public class ConcertRecords {
         WHERE Transactions.transaction_code = ?;
     """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setInt(1, transactionCode);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -213,22 +268,19 @@ public class ConcertRecords {
     public void ticketRecord(int ticketCode) {
         String query = """
         SELECT
-            Tickets.ticket_code, Tickets.ticket_price, Tickets.seat_number, Tickets.ticket_type,
-            Concerts.concert_title, Concerts.performer_name, Concerts.concert_date,
-            Venues.venue_name, Transactions.transaction_date, Transactions.transaction_type,
+            Tickets.ticket_code, Tickets.concert_code, Tickets.ticket_price, Tickets.seat_number, Tickets.ticket_type,
+            Transactions.transaction_date, Transactions.transaction_type,
             Customers.first_name AS customer_first_name,
             Customers.last_name AS customer_last_name, Customers.email AS customer_email,
             Customers.contact_number AS customer_contact
         FROM Tickets
-        JOIN Concerts ON Tickets.concert_code = Concerts.concert_code
-        JOIN Artists ON Concerts.artist_code = Artists.artist_code
-        JOIN Venues ON Concerts.venue_code = Venues.venue_code
         JOIN Transactions ON Tickets.transaction_code = Transactions.transaction_code
         JOIN Customers ON Transactions.customer_code = Customers.customer_code
         WHERE Tickets.ticket_code = ?;
        """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setInt(1, ticketCode);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -239,11 +291,15 @@ public class ConcertRecords {
                     System.out.println("Seat Number: " + rs.getString("seat_number"));
                     System.out.println("Transacted: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(rs.getTimestamp("transaction_date")));
 
-                    System.out.println("\n--- Concert Details ---");
-                    System.out.println("Event Name: " + rs.getString("concert_title"));
-                    System.out.println("Performer: " + rs.getString("performer_name"));
-                    System.out.println("Concert Date: " + rs.getDate("concert_date"));
-                    System.out.println("Venue: " + rs.getString("venue_name"));
+                    // Concert details come from the reference data cache
+                    ReferenceDataCache.ConcertInfo concert = referenceData.concert(connection, rs.getInt("concert_code"));
+                    if (concert != null) {
+                        System.out.println("\n--- Concert Details ---");
+                        System.out.println("Event Name: " + concert.concertTitle());
+                        System.out.println("Performer: " + concert.performerName());
+                        System.out.println("Concert Date: " + concert.concertDate());
+                        System.out.println("Venue: " + concert.venueName());
+                    }
 
                     System.out.println("\n--- Customer Details ---");
                     String currentCustomer = rs.getString("customer_first_name") + " " + rs.getString("customer_last_name");
@@ -251,33 +307,33 @@ public class ConcertRecords {
                     System.out.println("Email: " + rs.getString("customer_email"));
                     System.out.println("Contact Number: " + rs.getString("customer_contact"));
 
-                    // Determine if the current customer is the original buyer
-                    String transactionType = rs.getString("transaction_type");
-                    if ("transfer".equalsIgnoreCase(transactionType)) {
-                        // Find the original buyer
-                        String originalBuyerQuery = """
-                        SELECT Customers.first_name, Customers.last_name
-                        FROM Transactions
-                        JOIN Tickets ON Transactions.transaction_code = Tickets.transaction_code
-                        JOIN Customers ON Transactions.customer_code = Customers.customer_code
-                        WHERE Tickets.ticket_code = ? AND Transactions.transaction_type = 'buy'
-                        ORDER BY Transactions.transaction_date ASC
-                        LIMIT 1;
-                       """;
+                    // Original buyer, current holder and every step in between come from the ownership ledger
+                    List<OwnershipLedger.OwnershipEvent> history = OwnershipLedger.history(connection, ticketCode);
+                    if (history.isEmpty()) {
+                        System.out.println("Original Buyer: Unknown (No ownership history recorded)");
+                    } else {
+                        OwnershipLedger.OwnershipEvent first = history.get(0);
+                        OwnershipLedger.OwnershipEvent last = history.get(history.size() - 1);
+                        if (!"buy".equals(first.eventType())) {
+                            System.out.println("Original Buyer: Unknown (Transferred before ownership history was kept)");
+                        } else if (history.size() == 1) {
+                            System.out.println("Original Buyer: Yes");
+                        } else {
+                            System.out.println("Original Buyer: " + first.customerName());
+                        }
+                        if ("refund".equals(last.eventType())) {
+                            System.out.println("Current Owner: None (Ticket refunded)");
+                        } else if ("cancel".equals(last.eventType())) {
+                            System.out.println("Current Owner: None (Concert cancelled)");
+                        }
 
-                        try (PreparedStatement originalStmt = connection.prepareStatement(originalBuyerQuery)) {
-                            originalStmt.setInt(1, ticketCode);
-                            try (ResultSet originalRs = originalStmt.executeQuery()) {
-                                if (originalRs.next()) {
-                                    String originalBuyer = originalRs.getString("first_name") + " " + originalRs.getString("last_name");
-                                    System.out.println("Original Buyer: " + originalBuyer);
-                                } else {
-                                    System.out.println("Original Buyer: Unknown (Could not find original transaction)");
-                                }
-                            }
+                        System.out.println("\n--- Ownership History ---");
+                        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                        for (OwnershipLedger.OwnershipEvent event : history) {
+                            System.out.printf("%d. %-8s | %s | Transaction: %s | %s\n", event.seq(), event.eventType(),
+                                    event.customerName(), event.transactionCode() == null ? "-" : event.transactionCode(),
+                                    format.format(event.eventTime()));
                         }
-                    } else {
-                        System.out.println("Original Buyer: Yes");
                     }
                 } else {
                     System.out.println("No ticket record found for Ticket Code: " + ticketCode);
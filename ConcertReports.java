@@ -1,20 +1,143 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.InputMismatchException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 public class ConcertReports {
 
-    Connection connection;
-    Statement statement;
+    // Annual sales by month, read from the MonthlySales rollup (at most 12 months x rollup slots rows)
+    static final String ANNUAL_SALES_QUERY = """
+        SELECT
+            sales_month AS month,
+            SUM(total_amount) AS total_sales,
+            SUM(ticket_count) AS tickets_sold
+        FROM MonthlySales
+        WHERE sales_year = ?
+          AND transaction_type = 'buy'
+        GROUP BY sales_month
+        ORDER BY sales_month;
+    """;
 
-    public ConcertReports(Connection connection) {
-        this.connection = connection;
-        try {
-            statement = connection.createStatement();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+    // SQL query to get concert analysis data
+    static final String CONCERT_ANALYSIS_QUERY = """
+        SELECT
+            Concerts.concert_code,
+            Concerts.concert_title,  -- Concert title is now selected
+            Concerts.performer_name,
+            COUNT(Tickets.ticket_code) AS total_tickets_sold
+        FROM Concerts
+        LEFT JOIN Tickets ON Concerts.concert_code = Tickets.concert_code
+        LEFT JOIN Transactions ON Tickets.transaction_code = Transactions.transaction_code
+        WHERE Concerts.concert_date >= ? AND Concerts.concert_date < ?
+        AND Transactions.transaction_type = 'buy'  -- Only consider 'buy' transactions
+        GROUP BY Concerts.concert_code, Concerts.concert_title, Concerts.performer_name
+        ORDER BY total_tickets_sold DESC;
+    """;
+
+    // A buy transaction totals every seat of its order, so revenue is summed per ticket, not per transaction
+    static final String TOP_SALES_QUERY = """
+            SELECT
+                Concerts.concert_code,
+                Concerts.performer_name,
+                Concerts.concert_title,  -- Added the title column
+                SUM(Tickets.ticket_price) AS total_sales
+            FROM Tickets
+            JOIN Transactions ON Tickets.transaction_code = Transactions.transaction_code
+            JOIN Concerts ON Tickets.concert_code = Concerts.concert_code
+            WHERE Transactions.transaction_type = 'buy'
+              AND Transactions.transaction_date >= ? AND Transactions.transaction_date < ?
+            GROUP BY Concerts.concert_code, Concerts.performer_name, Concerts.concert_title
+            ORDER BY total_sales DESC;
+        """;
+
+    // Updated SQL query to correctly sum ticket and miscellaneous sales; ticket sales are summed per ticket
+    // because a buy transaction totals every seat of its order
+    static final String CUSTOMER_ENGAGEMENT_QUERY = """
+    SELECT\s
+        Customers.customer_code,
+        Customers.first_name,
+        Customers.last_name,
+        COUNT(DISTINCT Transactions.transaction_code) AS total_transactions,
+        SUM(CASE\s
+            WHEN Transactions.transaction_type = 'buy' AND Refunds.ticket_code IS NULL
+                THEN COALESCE(Tickets.ticket_price, Transactions.total_amount)\s
+            ELSE 0\s
+        END) AS ticket_sales,
+        SUM(CASE\s
+            WHEN Transactions.transaction_type != 'buy' THEN Transactions.total_amount\s
+            ELSE 0\s
+        END) AS other_sales,
+        SUM(CASE\s
+            WHEN Transactions.transaction_type = 'buy' AND Refunds.ticket_code IS NULL
+                THEN COALESCE(Tickets.ticket_price, Transactions.total_amount)\s
+            ELSE 0\s
+        END) + SUM(CASE\s
+            WHEN Transactions.transaction_type != 'buy' THEN Transactions.total_amount\s
+            ELSE 0\s
+        END) AS total_sales
+    FROM Customers
+    JOIN Transactions ON Customers.customer_code = Transactions.customer_code
+    -- Only buys fan out to their tickets; a transfer's fee already covers all its tickets and stays one row
+    LEFT JOIN Tickets ON Transactions.transaction_code = Tickets.transaction_code
+        AND Transactions.transaction_type = 'buy'
+    LEFT JOIN Refunds ON Tickets.ticket_code = Refunds.ticket_code
+    WHERE Transactions.transaction_date >= ? AND Transactions.transaction_date < ?
+    GROUP BY Customers.customer_code, Customers.first_name, Customers.last_name
+    ORDER BY total_sales DESC;
+   \s""";
+
+    public record MonthSales(int month, double totalSales, int ticketsSold) {
+    }
+
+    public record ConcertTickets(int concertCode, String concertTitle, String performerName, int ticketsSold) {
+    }
+
+    public record ConcertSales(int concertCode, String performerName, String concertTitle, double totalSales) {
+    }
+
+    public record CustomerActivity(int customerCode, String firstName, String lastName, int totalTransactions,
+                                   double totalSales, double ticketSales, double otherSales) {
+    }
+
+    // One row of a report query's EXPLAIN output
+    public record PlanStep(String table, String access, String key, long rows, String extra) {
+
+        // Reading all of Transactions or Tickets makes a report grow with the whole history, not one year
+        boolean scansLargeTable() {
+            return "ALL".equalsIgnoreCase(access)
+                    && ("Transactions".equalsIgnoreCase(table) || "Tickets".equalsIgnoreCase(table));
         }
     }
 
+    static final long DASHBOARD_DEADLINE_MS = Long.getLong("concerttix.dashboard.deadlineMs", 30_000L);
+
+    private interface ReportTask {
+        Object run() throws SQLException;
+    }
+
+    private record TimedReport(Object rows, long elapsedNanos) {
+    }
+
+    ConnectionPool pool;
+    ReportCache cache;
+
+    public ConcertReports(ConnectionPool pool, ReportCache cache) {
+        this.pool = pool;
+        this.cache = cache;
+    }
+
     // Handles the report menu
     public void reportMenu() {
         boolean programRun = true;
@@ -26,7 +149,12 @@ public class ConcertReports {
             System.out.println("[2] Concert Analysis");
             System.out.println("[3] Customer Engagement");
             System.out.println("[4] Top Sales");
-            System.out.println("[5] Back to Main Menu");
+            System.out.println("[5] Year Dashboard (All Reports)");
+            System.out.println("[6] Check Report Query Plans");
+            System.out.println("[7] Rebuild Monthly Sales Rollup");
+            System.out.println("[8] Report Cache Stats");
+            System.out.println("[9] Export Report to File");
+            System.out.println("[10] Back to Main Menu");
 
             inputRun = true;
             while (inputRun) {
@@ -51,6 +179,26 @@ public class ConcertReports {
                             topSales();
                             break;
                         case 5:
+                            inputRun = false;
+                            yearDashboard();
+                            break;
+                        case 6:
+                            inputRun = false;
+                            checkQueryPlans();
+                            break;
+                        case 7:
+                            inputRun = false;
+                            rebuildSalesRollup();
+                            break;
+                        case 8:
+                            inputRun = false;
+                            cache.printStats();
+                            break;
+                        case 9:
+                            inputRun = false;
+                            exportReport();
+                            break;
+                        case 10:
                             inputRun = false;
                             programRun = false;
                             System.out.println("Returning to main menu...");
@@ -65,54 +213,108 @@ public class ConcertReports {
         }
     }
 
-    private void annualSales() {
-        System.out.println("\n--- Annual Sales Report ---");
-        int year = MyJDBC.getUserInput("Enter year for the report: ");
+    public List<MonthSales> annualSalesData(int year) throws SQLException {
+        return cache.get("annualSales", year, () -> {
+            List<MonthSales> rows = new ArrayList<>();
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(ANNUAL_SALES_QUERY)) {
+                stmt.setInt(1, year); // Set the year parameter
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new MonthSales(rs.getInt("month"), rs.getDouble("total_sales"), rs.getInt("tickets_sold")));
+                    }
+                }
+            }
+            return List.copyOf(rows);
+        });
+    }
 
-        // SQL query to calculate the annual sales by month
-        String query = """
-        SELECT 
-            MONTH(transaction_date) AS month,
-            SUM(total_amount) AS total_sales,
-            COUNT(transaction_code) AS tickets_sold
-        FROM Transactions
-        WHERE transaction_type = 'buy'
-          AND YEAR(transaction_date) = ?
-        GROUP BY MONTH(transaction_date)
-        ORDER BY MONTH(transaction_date);
-    """;
+    public List<ConcertTickets> concertAnalysisData(int year) throws SQLException {
+        return cache.get("concertAnalysis", year, () -> {
+            List<ConcertTickets> rows = new ArrayList<>();
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(CONCERT_ANALYSIS_QUERY)) {
+                bindYear(stmt, year);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new ConcertTickets(rs.getInt("concert_code"), rs.getString("concert_title"),
+                                rs.getString("performer_name"), rs.getInt("total_tickets_sold")));
+                    }
+                }
+            }
+            return List.copyOf(rows);
+        });
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, year); // Set the year parameter
+    public List<ConcertSales> topSalesData(int year) throws SQLException {
+        return cache.get("topSales", year, () -> {
+            List<ConcertSales> rows = new ArrayList<>();
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(TOP_SALES_QUERY)) {
+                bindYear(stmt, year);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new ConcertSales(rs.getInt("concert_code"), rs.getString("performer_name"),
+                                rs.getString("concert_title"), rs.getDouble("total_sales")));
+                    }
+                }
+            }
+            return List.copyOf(rows);
+        });
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                System.out.println("\n--- Sales Report for Year: " + year + " ---");
-                System.out.printf("%-10s | %-15s | %-15s%n", "Month", "Total Sales", "Tickets Sold");
-                System.out.println("-----------------------------------------------");
+    public List<CustomerActivity> customerEngagementData(int year) throws SQLException {
+        return cache.get("customerEngagement", year, () -> {
+            List<CustomerActivity> rows = new ArrayList<>();
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(CUSTOMER_ENGAGEMENT_QUERY)) {
+                bindYear(stmt, year);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new CustomerActivity(rs.getInt("customer_code"), rs.getString("first_name"),
+                                rs.getString("last_name"), rs.getInt("total_transactions"), rs.getDouble("total_sales"),
+                                rs.getDouble("ticket_sales"), rs.getDouble("other_sales")));
+                    }
+                }
+            }
+            return List.copyOf(rows);
+        });
+    }
 
-                double yearlyTotal = 0;  // Use double for accurate sales calculation
-                int yearlyTickets = 0;
+    private void annualSales() {
+        System.out.println("\n--- Annual Sales Report ---");
+        int year = MyJDBC.getUserInput("Enter year for the report: ");
 
-                while (rs.next()) {
-                    int month = rs.getInt("month");
-                    double totalSales = rs.getDouble("total_sales");  // Adjust to handle decimal values
-                    int ticketsSold = rs.getInt("tickets_sold");
+        try {
+            printAnnualSales(year, annualSalesData(year));
+        } catch (SQLException e) {
+            System.err.println("Error fetching sales data: " + e.getMessage());
+        }
+    }
 
-                    yearlyTotal += totalSales;
-                    yearlyTickets += ticketsSold;
+    void printAnnualSales(int year, List<MonthSales> rows) {
+        System.out.println("\n--- Sales Report for Year: " + year + " ---");
+        System.out.printf("%-10s | %-15s | %-15s%n", "Month", "Total Sales", "Tickets Sold");
+        System.out.println("-----------------------------------------------");
 
-                    System.out.printf("%-10s | ₱%-15.2f | %-15d%n", getMonthName(month), totalSales, ticketsSold);
-                }
+        double yearlyTotal = 0;  // Use double for accurate sales calculation
+        int yearlyTickets = 0;
 
-                System.out.println("-----------------------------------------------");
-                System.out.printf("%-10s | ₱%-15.2f | %-15d%n", "Total", yearlyTotal, yearlyTickets);
+        for (MonthSales row : rows) {
+            yearlyTotal += row.totalSales();
+            yearlyTickets += row.ticketsSold();
 
-            } catch (SQLException e) {
-                System.err.println("Error fetching sales data: " + e.getMessage());
-            }
-        } catch (SQLException e) {
-            System.err.println("Error preparing sales report: " + e.getMessage());
+            System.out.printf("%-10s | ₱%-15.2f | %-15d%n", getMonthName(row.month()), row.totalSales(), row.ticketsSold());
         }
+
+        System.out.println("-----------------------------------------------");
+        System.out.printf("%-10s | ₱%-15.2f | %-15d%n", "Total", yearlyTotal, yearlyTickets);
+    }
+
+    // Binds the half-open range [January 1 of year, January 1 of year + 1) so the date column stays indexable
+    static void bindYear(PreparedStatement stmt, int year) throws SQLException {
+        stmt.setDate(1, Date.valueOf(LocalDate.of(year, 1, 1)));
+        stmt.setDate(2, Date.valueOf(LocalDate.of(year + 1, 1, 1)));
     }
 
     // Helper method to convert month number to month name
@@ -140,92 +342,58 @@ public class ConcertReports {
         // Get the year for the report
         int year = MyJDBC.getUserInput("Enter year for the report: ");
 
-        // SQL query to get concert analysis data
-        String query = """
-        SELECT 
-            Concerts.concert_code,
-            Concerts.concert_title,  -- Concert title is now selected
-            Concerts.performer_name,
-            COUNT(Tickets.ticket_code) AS total_tickets_sold
-        FROM Concerts
-        LEFT JOIN Tickets ON Concerts.concert_code = Tickets.concert_code
-        LEFT JOIN Transactions ON Tickets.transaction_code = Transactions.transaction_code
-        WHERE YEAR(Concerts.concert_date) = ?
-        AND Transactions.transaction_type = 'buy'  -- Only consider 'buy' transactions
-        GROUP BY Concerts.concert_code, Concerts.concert_title, Concerts.performer_name
-        ORDER BY total_tickets_sold DESC;
-    """;
-
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, year); // Set the year parameter
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                // Print the headers for the report
-                System.out.printf("\n%-15s %-30s %-25s %-15s\n", "Concert Code", "Concert Title", "Performer", "Tickets Sold");
-                System.out.println("-------------------------------------------------------------");
-
-                boolean hasResults = false;
-                while (rs.next()) {
-                    hasResults = true;
-                    // Print each concert's data
-                    System.out.printf("%-15d %-30s %-25s %-15d\n",
-                            rs.getInt("concert_code"),
-                            rs.getString("concert_title"),
-                            rs.getString("performer_name"),
-                            rs.getInt("total_tickets_sold"));
-                }
-
-                if (!hasResults) {
-                    System.out.println("No concert data found for the given year.");
-                }
-            }
+        try {
+            printConcertAnalysis(concertAnalysisData(year));
         } catch (SQLException e) {
             System.err.println("Error generating concert analysis report: " + e.getMessage());
         }
     }
 
+    void printConcertAnalysis(List<ConcertTickets> rows) {
+        // Print the headers for the report
+        System.out.printf("\n%-15s %-30s %-25s %-15s\n", "Concert Code", "Concert Title", "Performer", "Tickets Sold");
+        System.out.println("-------------------------------------------------------------");
+
+        for (ConcertTickets row : rows) {
+            // Print each concert's data
+            System.out.printf("%-15d %-30s %-25s %-15d\n",
+                    row.concertCode(),
+                    row.concertTitle(),
+                    row.performerName(),
+                    row.ticketsSold());
+        }
+
+        if (rows.isEmpty()) {
+            System.out.println("No concert data found for the given year.");
+        }
+    }
+
     private void topSales() {
         System.out.println("\n--- Top Selling Concerts Report ---");
 
         int year = MyJDBC.getUserInput("Enter year for the report: ");
-        String query = """
-            SELECT 
-                Concerts.concert_code,
-                Concerts.performer_name,
-                Concerts.concert_title,  -- Added the title column
-                SUM(Transactions.total_amount) AS total_sales
-            FROM Tickets
-            JOIN Transactions ON Tickets.transaction_code = Transactions.transaction_code
-            JOIN Concerts ON Tickets.concert_code = Concerts.concert_code
-            WHERE YEAR(Transactions.transaction_date) = ?
-              AND Transactions.transaction_type = 'buy'
-            GROUP BY Concerts.concert_code, Concerts.performer_name, Concerts.concert_title
-            ORDER BY total_sales DESC;
-        """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, year);
+        try {
+            printTopSales(topSalesData(year));
+        } catch (SQLException e) {
+            System.err.println("Error generating top sales report: " + e.getMessage());
+        }
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                System.out.printf("\n%-15s %-25s %-30s %-15s\n", "Concert Code", "Performer", "Concert Title", "Total Sales");
-                System.out.println("---------------------------------------------------------------------");
+    void printTopSales(List<ConcertSales> rows) {
+        System.out.printf("\n%-15s %-25s %-30s %-15s\n", "Concert Code", "Performer", "Concert Title", "Total Sales");
+        System.out.println("---------------------------------------------------------------------");
 
-                boolean hasResults = false;
-                while (rs.next()) {
-                    hasResults = true;
-                    System.out.printf("%-15d %-25s %-30s ₱%-15.2f\n",
-                            rs.getInt("concert_code"),
-                            rs.getString("performer_name"),
-                            rs.getString("concert_title"),  // Display concert title
-                            rs.getDouble("total_sales"));
-                }
+        for (ConcertSales row : rows) {
+            System.out.printf("%-15d %-25s %-30s ₱%-15.2f\n",
+                    row.concertCode(),
+                    row.performerName(),
+                    row.concertTitle(),  // Display concert title
+                    row.totalSales());
+        }
 
-                if (!hasResults) {
-                    System.out.println("No sales data found for the given year.");
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error generating top sales report: " + e.getMessage());
+        if (rows.isEmpty()) {
+            System.out.println("No sales data found for the given year.");
         }
     }
 
@@ -235,66 +403,225 @@ public class ConcertReports {
         // Prompt the user for the year
         int year = MyJDBC.getUserInput("Enter year for the report: ");
 
-        // Updated SQL query to correctly sum ticket and miscellaneous sales
-        String query = """
-    SELECT\s
-        Customers.customer_code,
-        Customers.first_name,
-        Customers.last_name,
-        COUNT(DISTINCT Transactions.transaction_code) AS total_transactions,
-        SUM(CASE\s
-            WHEN Transactions.transaction_type = 'buy' AND Refunds.ticket_code IS NULL THEN Transactions.total_amount\s
-            ELSE 0\s
-        END) AS ticket_sales,
-        SUM(CASE\s
-            WHEN Transactions.transaction_type != 'buy' THEN Transactions.total_amount\s
-            ELSE 0\s
-        END) AS other_sales,
-        SUM(CASE\s
-            WHEN Transactions.transaction_type = 'buy' AND Refunds.ticket_code IS NULL THEN Transactions.total_amount\s
-            ELSE 0\s
-        END) + SUM(CASE\s
-            WHEN Transactions.transaction_type != 'buy' THEN Transactions.total_amount\s
-            ELSE 0\s
-        END) AS total_sales
-    FROM Customers
-    JOIN Transactions ON Customers.customer_code = Transactions.customer_code
-    LEFT JOIN Tickets ON Transactions.transaction_code = Tickets.transaction_code
-    LEFT JOIN Refunds ON Tickets.ticket_code = Refunds.ticket_code
-    WHERE YEAR(Transactions.transaction_date) = ?
-    GROUP BY Customers.customer_code, Customers.first_name, Customers.last_name
-    ORDER BY total_sales DESC;
-   \s""";
+        try {
+            printCustomerEngagement(customerEngagementData(year));
+        } catch (SQLException e) {
+            System.err.println("Error generating Customer Engagement Report: " + e.getMessage());
+        }
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, year);
-            try (ResultSet rs = stmt.executeQuery()) {
-                System.out.printf("\n%-15s %-20s %-20s %-20s %-15s %-15s %-15s\n",
-                        "Customer ID", "First Name", "Last Name",
-                        "Total Transactions", "Total Sales",
-                        "Ticket Sales", "Misc Sales");
-                System.out.println("----------------------------------------------------------------------------------------------");
+    void printCustomerEngagement(List<CustomerActivity> rows) {
+        System.out.printf("\n%-15s %-20s %-20s %-20s %-15s %-15s %-15s\n",
+                "Customer ID", "First Name", "Last Name",
+                "Total Transactions", "Total Sales",
+                "Ticket Sales", "Misc Sales");
+        System.out.println("----------------------------------------------------------------------------------------------");
+
+        for (CustomerActivity row : rows) {
+            System.out.printf(
+                    "%-15d %-20s %-20s %-20d ₱%-15.2f ₱%-15.2f ₱%-15.2f\n",
+                    row.customerCode(),
+                    row.firstName(),
+                    row.lastName(),
+                    row.totalTransactions(),
+                    row.totalSales(),
+                    row.ticketSales(),
+                    row.otherSales()
+            );
+        }
+        if (rows.isEmpty()) {
+            System.out.println("No transactions found for the given year.");
+        }
+    }
+
+    // Runs all four reports for a year at once, each on its own pooled connection, so the dashboard takes as long
+    // as the slowest report. Reports still running at the deadline are cancelled and shown as timed out.
+    private void yearDashboard() {
+        System.out.println("\n--- Year Dashboard ---");
+        int year = MyJDBC.getUserInput("Enter year for the dashboard: ");
+
+        Map<String, ReportTask> tasks = new LinkedHashMap<>();
+        tasks.put("Annual Sales", () -> annualSalesData(year));
+        tasks.put("Concert Analysis", () -> concertAnalysisData(year));
+        tasks.put("Top Sales", () -> topSalesData(year));
+        tasks.put("Customer Engagement", () -> customerEngagementData(year));
+
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size(), runnable -> {
+            Thread thread = new Thread(runnable, "report-dashboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long started = System.nanoTime();
+        Map<String, Future<TimedReport>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, ReportTask> task : tasks.entrySet()) {
+            futures.put(task.getKey(), executor.submit(() -> {
+                long taskStarted = System.nanoTime();
+                Object rows = task.getValue().run();
+                return new TimedReport(rows, System.nanoTime() - taskStarted);
+            }));
+        }
+
+        long deadline = started + DASHBOARD_DEADLINE_MS * 1_000_000L;
+        Map<String, String> outcomes = new LinkedHashMap<>();
+        Map<String, TimedReport> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<TimedReport>> entry : futures.entrySet()) {
+            try {
+                TimedReport report = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                results.put(entry.getKey(), report);
+                outcomes.put(entry.getKey(), String.format("%.1f ms", report.elapsedNanos() / 1_000_000.0));
+            } catch (TimeoutException e) {
+                // The interrupt frees this dashboard; a query already on the server finishes there and may still fill the cache
+                entry.getValue().cancel(true);
+                outcomes.put(entry.getKey(), "timed out after " + DASHBOARD_DEADLINE_MS + " ms");
+            } catch (ExecutionException e) {
+                outcomes.put(entry.getKey(), "failed: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(future -> future.cancel(true));
+                outcomes.put(entry.getKey(), "interrupted");
+                break;
+            }
+        }
+        executor.shutdownNow();
+        long wallNanos = System.nanoTime() - started;
+
+        System.out.println("\n=== Dashboard for Year: " + year + " ===");
+        printDashboardSection("Annual Sales", results, rows -> printAnnualSales(year, castRows(rows)));
+        printDashboardSection("Concert Analysis", results, rows -> printConcertAnalysis(castRows(rows)));
+        printDashboardSection("Top Sales", results, rows -> printTopSales(castRows(rows)));
+        printDashboardSection("Customer Engagement", results, rows -> printCustomerEngagement(castRows(rows)));
+
+        System.out.println("\n--- Dashboard Timings ---");
+        for (Map.Entry<String, String> outcome : outcomes.entrySet()) {
+            System.out.printf("%-25s %s%n", outcome.getKey(), outcome.getValue());
+        }
+        System.out.printf("%-25s %.1f ms%n", "Wall clock", wallNanos / 1_000_000.0);
+    }
+
+    private void printDashboardSection(String name, Map<String, TimedReport> results, Consumer<Object> printer) {
+        System.out.println("\n--- " + name + " ---");
+        TimedReport report = results.get(name);
+        if (report == null) {
+            System.out.println("Not available; see the timings below.");
+        } else {
+            printer.accept(report.rows());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> castRows(Object rows) {
+        return (List<T>) rows;
+    }
+
+    // Writes a full report to CSV or JSON Lines without holding it in memory or printing it; bypasses the cache
+    private void exportReport() {
+        System.out.println("\n--- Export Report ---");
+        System.out.println("[1] Concert Analysis");
+        System.out.println("[2] Customer Engagement");
+        System.out.println("[3] Top Sales");
+        int report = MyJDBC.getUserInput("Report: ");
+        String query;
+        String name;
+        switch (report) {
+            case 1 -> {
+                query = CONCERT_ANALYSIS_QUERY;
+                name = "concert_analysis";
+            }
+            case 2 -> {
+                query = CUSTOMER_ENGAGEMENT_QUERY;
+                name = "customer_engagement";
+            }
+            case 3 -> {
+                query = TOP_SALES_QUERY;
+                name = "top_sales";
+            }
+            default -> {
+                System.out.println("Invalid input.");
+                return;
+            }
+        }
+        int year = MyJDBC.getUserInput("Enter year for the report: ");
+        int formatChoice = MyJDBC.getUserInput("Format ([1] CSV, [2] JSON Lines): ");
+        ReportExporter.Format format = formatChoice == 2 ? ReportExporter.Format.JSON_LINES : ReportExporter.Format.CSV;
+        Path file = Path.of(name + "_" + year + "." + format.extension);
+
+        try {
+            ReportExporter.ExportResult result = new ReportExporter(pool)
+                    .export(query, stmt -> bindYear(stmt, year), format, file);
+            System.out.printf("Exported %d row(s) to %s in %.2f s (%.0f rows/s).%n", result.rows(),
+                    result.file().toAbsolutePath(), result.elapsedNanos() / 1_000_000_000.0, result.rowsPerSecond());
+        } catch (SQLException | IOException e) {
+            System.err.println("Error exporting report: " + e.getMessage());
+        }
+    }
 
-                boolean hasResults = false;
+    // Recomputes MonthlySales from Transactions, e.g. after rows were loaded or fixed outside the application
+    private void rebuildSalesRollup() {
+        System.out.println("\n--- Rebuild Monthly Sales Rollup ---");
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int rows = SalesRollup.rebuild(connection);
+                connection.commit();
+                cache.invalidateAll();
+                System.out.println("Monthly sales rollup rebuilt: " + rows + " month/type total(s).");
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding monthly sales rollup: " + e.getMessage());
+        }
+    }
+
+    // The report queries over Transactions and Tickets, by report name. Annual Sales reads the MonthlySales
+    // rollup by primary key and is not listed.
+    static Map<String, String> plannedQueries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("Concert Analysis", CONCERT_ANALYSIS_QUERY);
+        queries.put("Top Sales", TOP_SALES_QUERY);
+        queries.put("Customer Engagement", CUSTOMER_ENGAGEMENT_QUERY);
+        return queries;
+    }
+
+    static List<PlanStep> explain(Connection connection, String query, int year) throws SQLException {
+        List<PlanStep> plan = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN " + query.strip())) {
+            bindYear(stmt, year);
+            try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    hasResults = true;
-                    System.out.printf(
-                            "%-15d %-20s %-20s %-20d ₱%-15.2f ₱%-15.2f ₱%-15.2f\n",
-                            rs.getInt("customer_code"),
-                            rs.getString("first_name"),
-                            rs.getString("last_name"),
-                            rs.getInt("total_transactions"),
-                            rs.getDouble("total_sales"),
-                            rs.getDouble("ticket_sales"),
-                            rs.getDouble("other_sales")
-                    );
+                    plan.add(new PlanStep(rs.getString("table"), rs.getString("type"), rs.getString("key"),
+                            rs.getLong("rows"), rs.getString("Extra")));
                 }
-                if (!hasResults) {
-                    System.out.println("No transactions found for the given year.");
+            }
+        }
+        return plan;
+    }
+
+    // Diagnostic view of the plans ReportQueryPlanTest asserts on: EXPLAIN of every report query, with full
+    // scans of the large tables flagged
+    private void checkQueryPlans() {
+        System.out.println("\n--- Report Query Plans ---");
+        int year = MyJDBC.getUserInput("Enter year to explain the reports for: ");
+
+        try (Connection connection = pool.getConnection()) {
+            for (Map.Entry<String, String> entry : plannedQueries().entrySet()) {
+                System.out.println("\n" + entry.getKey());
+                System.out.printf("%-15s %-10s %-35s %-10s %s\n", "Table", "Access", "Key", "Rows", "Extra");
+                System.out.println("---------------------------------------------------------------------------------");
+
+                boolean fullScan = false;
+                for (PlanStep step : explain(connection, entry.getValue(), year)) {
+                    System.out.printf("%-15s %-10s %-35s %-10d %s\n",
+                            step.table(), step.access(), step.key(), step.rows(), step.extra());
+                    fullScan |= step.scansLargeTable();
                 }
+                System.out.println(fullScan
+                        ? "WARNING: full scan of Transactions or Tickets; check the report indexes."
+                        : "OK: no full scan of Transactions or Tickets.");
             }
         } catch (SQLException e) {
-            System.err.println("Error generating Customer Engagement Report: " + e.getMessage());
+            System.err.println("Error explaining report queries: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,456 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionPool implements AutoCloseable {
+
+    // Connections used within this window are handed out again without a validation ping
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // Prepared statements kept open per physical connection, least recently used closed first
+    static final int STATEMENT_CACHE_SIZE = Integer.getInteger("concerttix.pool.statementCacheSize", 64);
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final long checkoutTimeoutMillis;
+    private final long keepAliveMillis;
+
+    // Idle connections, most recently returned first so the warmest connection is reused
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    // One permit per connection that may be checked out; caps the pool size
+    private final Semaphore permits;
+    private final ScheduledExecutorService keepAlive;
+
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong checkoutTimeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong connectionsDiscarded = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementsEvicted = new AtomicLong();
+
+    // Every lease is wrapped so per-statement timings are collected for all callers
+    private final QueryStats queryStats = new QueryStats();
+
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, String username, String password,
+                          int maxSize, long checkoutTimeoutMillis, long keepAliveMillis) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.checkoutTimeoutMillis = checkoutTimeoutMillis;
+        this.keepAliveMillis = keepAliveMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        keepAlive = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-keepalive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        keepAlive.scheduleWithFixedDelay(this::keepIdleConnectionsAlive,
+                keepAliveMillis, keepAliveMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Borrows a connection; closing the returned connection hands it back to the pool
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(checkoutTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                checkoutTimeouts.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + checkoutTimeoutMillis + " ms waiting for a pooled connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a pooled connection.", e);
+        }
+        recordWait(System.nanoTime() - waitStart);
+
+        try {
+            PooledConnection pooled = takeValidConnection();
+            checkouts.incrementAndGet();
+            return queryStats.wrap(pooled.lease());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidConnection() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - pooled.lastUsed < VALIDATION_BYPASS_MILLIS || isAlive(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return openConnection();
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        totalConnections.incrementAndGet();
+        connectionsCreated.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private boolean isAlive(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            // Leave the connection the way the next borrower expects to find it
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            if (closed) {
+                discard(pooled);
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        connectionsDiscarded.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // The connection is being thrown away either way
+        }
+    }
+
+    // Pings connections that have sat idle for a full keep-alive period and drops dead ones
+    private void keepIdleConnectionsAlive() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : idle.toArray(new PooledConnection[0])) {
+            if (now - pooled.lastUsed < keepAliveMillis || !idle.remove(pooled)) {
+                continue;
+            }
+            if (isAlive(pooled)) {
+                pooled.lastUsed = now;
+                idle.offerLast(pooled);
+            } else {
+                discard(pooled);
+            }
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    public QueryStats queryStats() {
+        return queryStats;
+    }
+
+    public PoolStats stats() {
+        long checkoutCount = checkouts.get();
+        return new PoolStats(
+                maxSize,
+                totalConnections.get(),
+                idle.size(),
+                maxSize - permits.availablePermits(),
+                permits.getQueueLength(),
+                checkoutCount,
+                checkoutTimeouts.get(),
+                checkoutCount == 0 ? 0 : totalWaitNanos.get() / checkoutCount / 1_000_000.0,
+                maxWaitNanos.get() / 1_000_000.0,
+                connectionsCreated.get(),
+                connectionsDiscarded.get(),
+                statementCacheHits.get(),
+                statementCacheMisses.get(),
+                statementsEvicted.get());
+    }
+
+    public void printStats() {
+        PoolStats stats = stats();
+        System.out.println("\n--- Connection Pool Stats ---");
+        System.out.printf("Connections: %d open / %d max (%d idle, %d in use)%n",
+                stats.totalConnections(), stats.maxSize(), stats.idleConnections(), stats.activeConnections());
+        System.out.printf("Threads Waiting: %d%n", stats.waitingThreads());
+        System.out.printf("Checkouts: %d | Timeouts: %d%n", stats.checkouts(), stats.checkoutTimeouts());
+        System.out.printf("Pool Wait: avg %.3f ms | max %.3f ms%n", stats.averageWaitMillis(), stats.maxWaitMillis());
+        System.out.printf("Created: %d | Discarded: %d%n", stats.connectionsCreated(), stats.connectionsDiscarded());
+        long lookups = stats.statementCacheHits() + stats.statementCacheMisses();
+        System.out.printf("Statement Cache: %d hits / %d misses (%.1f%% hit rate) | Evicted: %d%n",
+                stats.statementCacheHits(), stats.statementCacheMisses(),
+                lookups == 0 ? 0.0 : 100.0 * stats.statementCacheHits() / lookups, stats.statementsEvicted());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        keepAlive.shutdownNow();
+        queryStats.stopPeriodicDump();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public record PoolStats(int maxSize, int totalConnections, int idleConnections, int activeConnections,
+                            int waitingThreads, long checkouts, long checkoutTimeouts,
+                            double averageWaitMillis, double maxWaitMillis,
+                            long connectionsCreated, long connectionsDiscarded,
+                            long statementCacheHits, long statementCacheMisses, long statementsEvicted) {
+    }
+
+    // Identifies a prepared statement by its SQL and the prepareStatement options it was created with
+    private record StatementKey(String sql, List<Object> options) {
+    }
+
+    private static class CachedStatement {
+
+        final PreparedStatement physical;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+    }
+
+    private class PooledConnection {
+
+        final Connection physical;
+        volatile long lastUsed = System.currentTimeMillis();
+        // Guarded by this PooledConnection; survives across leases so each SQL text is prepared once per connection
+        final LinkedHashMap<StatementKey, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+                if (size() <= STATEMENT_CACHE_SIZE) {
+                    return false;
+                }
+                CachedStatement cached = eldest.getValue();
+                cached.evicted = true;
+                if (!cached.inUse) {
+                    closeQuietly(cached.physical);
+                }
+                statementsEvicted.incrementAndGet();
+                return true;
+            }
+        };
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        // Each checkout gets its own handle so a stale reference cannot touch the next borrower's session
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // The statement is being thrown away either way
+        }
+    }
+
+    // One borrower's handle on a prepared statement; closing it hands a cached statement back for reuse
+    private class StatementLease implements InvocationHandler {
+
+        private final PooledConnection pooled;
+        private final CachedStatement cached;     // null for a statement that is not cached
+        private final PreparedStatement physical;
+        private final Object connectionProxy;
+        private boolean closed = false;
+
+        StatementLease(PooledConnection pooled, CachedStatement cached, PreparedStatement physical, Object connectionProxy) {
+            this.pooled = pooled;
+            this.cached = cached;
+            this.physical = physical;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (isClosed()) {
+                        throw new SQLException("Statement has already been closed.");
+                    }
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private boolean isClosed() {
+            synchronized (pooled) {
+                return closed;
+            }
+        }
+
+        void close() {
+            synchronized (pooled) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (cached == null) {
+                    closeQuietly(physical);
+                    return;
+                }
+                cached.inUse = false;
+                if (cached.evicted) {
+                    closeQuietly(physical);
+                    return;
+                }
+                // Leave no per-call state behind for the next borrower of this statement
+                try {
+                    physical.clearParameters();
+                    physical.clearBatch();
+                    physical.setFetchSize(0);
+                    physical.setMaxRows(0);
+                    physical.setQueryTimeout(0);
+                } catch (SQLException e) {
+                    pooled.statements.values().remove(cached);
+                    closeQuietly(physical);
+                }
+            }
+        }
+    }
+
+    private class LeaseHandler implements InvocationHandler {
+
+        private final PooledConnection pooled;
+        private final List<StatementLease> statementLeases = new ArrayList<>();
+        private boolean returned = false;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        // Statements the borrower left open go back to the cache (or are closed) with the connection
+                        for (StatementLease statementLease : statementLeases) {
+                            statementLease.close();
+                        }
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+            }
+
+            try {
+                if (method.getName().equals("prepareStatement")) {
+                    return prepare(proxy, method, args);
+                }
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Reuses this connection's statement for the SQL when it is free; a second concurrent use of the same
+        // SQL on one lease gets a plain statement that is closed normally
+        private Object prepare(Object proxy, Method method, Object[] args) throws ReflectiveOperationException {
+            boolean cacheable = Arrays.stream(args).noneMatch(arg -> arg != null && arg.getClass().isArray());
+            StatementKey key = new StatementKey((String) args[0], Arrays.asList(args).subList(1, args.length));
+            CachedStatement cached = null;
+            PreparedStatement physical;
+            synchronized (pooled) {
+                if (cacheable) {
+                    cached = pooled.statements.get(key);
+                    if (cached == null) {
+                        statementCacheMisses.incrementAndGet();
+                        cached = new CachedStatement((PreparedStatement) method.invoke(pooled.physical, args));
+                        pooled.statements.put(key, cached);
+                    } else if (cached.inUse) {
+                        cached = null;
+                    } else {
+                        statementCacheHits.incrementAndGet();
+                    }
+                }
+                if (cached != null) {
+                    cached.inUse = true;
+                    physical = cached.physical;
+                } else {
+                    physical = (PreparedStatement) method.invoke(pooled.physical, args);
+                }
+            }
+            StatementLease statementLease = new StatementLease(pooled, cached, physical, proxy);
+            statementLeases.add(statementLease);
+            return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, statementLease);
+        }
+    }
+}
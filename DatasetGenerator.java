@@ -0,0 +1,710 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fills a concerttix database with a synthetic dataset at production-like scale: companies, artists, venues,
+// millions of customers (a few of them banned), thousands of concerts with their price tiers, and tens of
+// millions of purchases, transfers and refunds with their tickets, refund rows and ownership history.
+//   java -cp .:mysql-connector-j.jar -Dconcerttix.gen.seed=7 -Dconcerttix.gen.customers=200000 DatasetGenerator
+// Every row comes from a random stream derived from the seed and the row's own index, and keys are assigned
+// from the table's current MAX onwards, so the same seed and settings generate the same rows on an empty
+// schema however many writers run. Concerts fall on weekends and in the busy months more often; sales
+// rush when a concert goes on sale and ramp up towards its date; dates after AS_OF are still on sale.
+// Seat labels follow SeatLayout's derived plan and tickets_available matches the tickets still held.
+// Meant for a throwaway database reached through the concerttix.bench.* settings, like Benchmarks.
+public class DatasetGenerator {
+
+    static final long SEED = Long.getLong("concerttix.gen.seed", 42L);
+    static final int COMPANIES = Integer.getInteger("concerttix.gen.companies", 40);
+    static final int ARTISTS = Integer.getInteger("concerttix.gen.artists", 1500);
+    static final int VENUES = Integer.getInteger("concerttix.gen.venues", 400);
+    static final int CUSTOMERS = Integer.getInteger("concerttix.gen.customers", 2_000_000);
+    static final int CONCERTS = Integer.getInteger("concerttix.gen.concerts", 5000);
+    static final int FIRST_YEAR = Integer.getInteger("concerttix.gen.firstYear", 2022);
+    static final int YEARS = Integer.getInteger("concerttix.gen.years", 5);
+    // The generated world's "today": concerts after it are still on sale and nothing happens later
+    static final LocalDate AS_OF = LocalDate.parse(System.getProperty("concerttix.gen.asOf",
+            LocalDate.of(FIRST_YEAR + YEARS - 1, 1, 1).minusDays(1).toString()));
+    // Share of purchases later transferred / refunded by whoever holds them then
+    static final double TRANSFER_RATE = Double.parseDouble(System.getProperty("concerttix.gen.transferRate", "0.06"));
+    static final double REFUND_RATE = Double.parseDouble(System.getProperty("concerttix.gen.refundRate", "0.04"));
+    static final double BAN_RATE = Double.parseDouble(System.getProperty("concerttix.gen.banRate", "0.001"));
+    static final int WRITERS = Integer.getInteger("concerttix.gen.writers", 8);
+    static final int BATCH_SIZE = Integer.getInteger("concerttix.gen.batchSize", 5000);
+
+    static final int SALES_WINDOW_DAYS = 120;
+
+    // Seasonal weight of each month for concert dates: a quiet January, a busy November and December
+    private static final int[] MONTH_WEIGHTS = {5, 7, 8, 8, 9, 7, 6, 6, 7, 9, 11, 14};
+    // Price tiers from best to cheapest with their multiple of the concert's base price; a concert uses the last k
+    private static final String[] TIER_NAMES = {"VIP", "Lower Box", "Upper Box", "General Admission"};
+    private static final double[] TIER_MULTIPLES = {6.0, 3.0, 1.8, 1.0};
+    // Tickets per purchase: 1, 2, 3 or 4
+    private static final int[] GROUP_WEIGHTS = {35, 40, 10, 15};
+
+    private static final String[] FIRST_NAMES = {"Juan", "Maria", "Jose", "Ana", "Mark", "Angel", "John", "Grace",
+            "Paolo", "Andrea", "Miguel", "Patricia", "Carlo", "Kristine", "Rafael", "Camille", "Gabriel", "Nicole",
+            "Joshua", "Bea", "Daniel", "Louise", "Jerome", "Trisha", "Kevin", "Erica", "Francis", "Jasmine", "Paulo", "Aira"};
+    private static final String[] LAST_NAMES = {"Dela Cruz", "Santos", "Reyes", "Garcia", "Mendoza", "Bautista",
+            "Ocampo", "Villanueva", "Ramos", "Aquino", "Castillo", "Flores", "Torres", "Navarro", "Gonzales",
+            "Lopez", "Cruz", "Rivera", "Domingo", "Salazar", "Fernandez", "Manalo", "Pascual", "Soriano"};
+    private static final String[] STAGE_WORDS = {"Silver", "Tide", "Echo", "Sinag", "Alon", "Velvet", "Northern",
+            "Lights", "Paper", "Kites", "Neon", "Harbor", "Bituin", "Ulan", "Static", "Bloom", "Mango", "Skies"};
+    private static final String[] GENRES = {"Pop", "OPM", "Rock", "R&B", "Hip-Hop", "Folk", "Indie", "Jazz", "EDM", "Ballad"};
+    private static final String[] TOUR_NAMES = {"Live", "in Concert", "World Tour", "Homecoming", "Unplugged",
+            "Anniversary Show", "Reunion Tour", "Arena Tour"};
+    private static final String[] CITIES = {"Pasay", "Quezon", "Manila", "Makati", "Taguig", "Pasig", "Cebu City",
+            "Davao City", "Iloilo City", "Bacolod", "Baguio", "Cagayan de Oro", "Angeles", "Legazpi"};
+    private static final String[] PROVINCES = {"Metro Manila", "Metro Manila", "Metro Manila", "Metro Manila",
+            "Metro Manila", "Metro Manila", "Cebu", "Davao del Sur", "Iloilo", "Negros Occidental", "Benguet",
+            "Misamis Oriental", "Pampanga", "Albay"};
+    private static final String[] VENUE_KINDS = {"Arena", "Coliseum", "Amphitheater", "Convention Center", "Dome",
+            "Theater", "Grounds", "Hall"};
+    private static final String[] PAYMENT_METHODS = {"card", "card", "card", "bank_transfer", "bank_transfer", "cash"};
+    private static final String[] BAN_REASONS = {"Ticket scalping", "Chargeback fraud", "Disorderly conduct",
+            "Counterfeit tickets"};
+
+    // Each kind of row draws from its own streams, so adding rows of one kind leaves the others unchanged
+    private static final int COMPANY_STREAM = 1;
+    private static final int ARTIST_STREAM = 2;
+    private static final int VENUE_STREAM = 3;
+    private static final int CUSTOMER_STREAM = 4;
+    private static final int BAN_STREAM = 5;
+    private static final int CONCERT_STREAM = 6;
+
+    // In foreign key order; every key is bound explicitly
+    private enum Table {
+        COMPANIES("INSERT INTO Companies (company_code, company_name, address, city, state, country, postal_code, "
+                + "company_email, contact_number, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        ARTISTS("INSERT INTO Artists (artist_code, company_code, stage_name, genre, first_name, last_name, birth_date, "
+                + "email, contact_number, nationality) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        VENUES("INSERT INTO Venues (venue_code, venue_name, street, city, province, barangay, postal_code, "
+                + "total_seating_capacity) VALUES (?, ?, ?, ?, ?, ?, ?, ?)"),
+        CUSTOMERS("INSERT INTO Customers (customer_code, first_name, last_name, birth_date, email, contact_number) "
+                + "VALUES (?, ?, ?, ?, ?, ?)"),
+        BANS("INSERT INTO Bans (ban_code, customer_code, ban_reason) VALUES (?, ?, ?)"),
+        CONCERTS("INSERT INTO Concerts (concert_code, artist_code, venue_code, concert_title, performer_name, "
+                + "entry_restrictions, concert_date, tickets_available, seating_capacity, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        PRICES("INSERT INTO Prices (ticket_type, concert_code, price) VALUES (?, ?, ?)"),
+        TRANSACTIONS("INSERT INTO Transactions (transaction_code, customer_code, transaction_type, transaction_date, "
+                + "total_amount, payment_method) VALUES (?, ?, ?, ?, ?, ?)"),
+        TICKETS("INSERT INTO Tickets (ticket_code, concert_code, transaction_code, ticket_type, seat_number, "
+                + "ticket_price, seat_released) VALUES (?, ?, ?, ?, ?, ?, ?)"),
+        REFUNDS("INSERT INTO Refunds (refund_code, transaction_code, ticket_code) VALUES (?, ?, ?)"),
+        TICKET_OWNERSHIP("INSERT INTO TicketOwnership (ticket_code, seq, customer_code, transaction_code, event_type, "
+                + "event_time) VALUES (?, ?, ?, ?, ?, ?)");
+
+        final String insertQuery;
+
+        Table(String insertQuery) {
+            this.insertQuery = insertQuery;
+        }
+    }
+
+    // The first key of each generated table: one past its current MAX
+    private record Bases(int company, int artist, int venue, int customer, int ban, int concert, int transaction,
+                         int ticket, int refund) {
+    }
+
+    private record Venue(String name, int capacity) {
+    }
+
+    private record Artist(String stageName, double popularity) {
+    }
+
+    // One concert's rows, or only their counts when sizing the key ranges before anything is written
+    private static final class ConcertRows {
+
+        final boolean keep;
+        final long[] counts = new long[Table.values().length];
+        final List<List<Object[]>> rows = new ArrayList<>();
+        int nextTransaction;
+        int nextTicket;
+        int nextRefund;
+
+        ConcertRows(boolean keep, int firstTransaction, int firstTicket, int firstRefund) {
+            this.keep = keep;
+            this.nextTransaction = firstTransaction;
+            this.nextTicket = firstTicket;
+            this.nextRefund = firstRefund;
+            for (int i = 0; i < Table.values().length; i++) {
+                rows.add(keep ? new ArrayList<>() : List.of());
+            }
+        }
+
+        void add(Table table, Object... values) {
+            counts[table.ordinal()]++;
+            if (keep) {
+                rows.get(table.ordinal()).add(values);
+            }
+        }
+
+        int transaction(int customerCode, String type, LocalDateTime date, BigDecimal total, String paymentMethod) {
+            int code = nextTransaction++;
+            add(Table.TRANSACTIONS, code, customerCode, type, Timestamp.valueOf(date), total, paymentMethod);
+            return code;
+        }
+
+        int ticket(int concertCode, int transactionCode, String ticketType, String seatNumber, BigDecimal price,
+                   boolean released) {
+            int code = nextTicket++;
+            add(Table.TICKETS, code, concertCode, transactionCode, ticketType, seatNumber, price, released);
+            return code;
+        }
+
+        void refund(int transactionCode, int ticketCode) {
+            add(Table.REFUNDS, nextRefund++, transactionCode, ticketCode);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("Generating seed %d: %,d customers, %,d concerts at %,d venues by %,d artists, %d-%d (as of %s)%n",
+                SEED, CUSTOMERS, CONCERTS, VENUES, ARTISTS, FIRST_YEAR, FIRST_YEAR + YEARS - 1, AS_OF);
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS, runnable -> {
+            Thread thread = new Thread(runnable, "dataset-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long started = System.nanoTime();
+        long[] totals = new long[Table.values().length];
+        try (ConnectionPool pool = MyJDBC.createPool(Benchmarks.HOST, Benchmarks.USER, Benchmarks.PASSWORD, WRITERS)) {
+            Bases bases;
+            try (Connection connection = pool.getConnection()) {
+                bases = bases(connection);
+            }
+
+            long phaseStarted = System.nanoTime();
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+                List<Object[]> companies = new ArrayList<>();
+                for (int i = 0; i < COMPANIES; i++) {
+                    companies.add(company(i, bases));
+                }
+                List<Object[]> artists = new ArrayList<>();
+                for (int i = 0; i < ARTISTS; i++) {
+                    artists.add(artistRow(i, bases));
+                }
+                List<Object[]> venues = new ArrayList<>();
+                for (int i = 0; i < VENUES; i++) {
+                    venues.add(venueRow(i, bases));
+                }
+                insert(connection, Table.COMPANIES, companies);
+                insert(connection, Table.ARTISTS, artists);
+                insert(connection, Table.VENUES, venues);
+                connection.commit();
+                totals[Table.COMPANIES.ordinal()] = COMPANIES;
+                totals[Table.ARTISTS.ordinal()] = ARTISTS;
+                totals[Table.VENUES.ordinal()] = VENUES;
+            }
+            report("Owners", COMPANIES + ARTISTS + VENUES, phaseStarted);
+
+            phaseStarted = System.nanoTime();
+            List<Callable<Long>> customerChunks = new ArrayList<>();
+            for (int from = 0; from < CUSTOMERS; from += BATCH_SIZE) {
+                int chunkFrom = from;
+                int chunkTo = Math.min(CUSTOMERS, from + BATCH_SIZE);
+                customerChunks.add(() -> writeCustomers(pool, bases, chunkFrom, chunkTo));
+            }
+            long customerRows = runAll(writers, customerChunks);
+            totals[Table.CUSTOMERS.ordinal()] = customerRows;
+            report("Customers", customerRows, phaseStarted);
+
+            phaseStarted = System.nanoTime();
+            long bans;
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+                bans = writeBans(connection, bases);
+                connection.commit();
+            }
+            totals[Table.BANS.ordinal()] = bans;
+            report("Bans", bans, phaseStarted);
+
+            // Sizes every concert's key ranges first, so concerts can then be written in any order in parallel
+            phaseStarted = System.nanoTime();
+            int[] firstTransaction = new int[CONCERTS];
+            int[] firstTicket = new int[CONCERTS];
+            int[] firstRefund = new int[CONCERTS];
+            List<Callable<long[]>> sizing = new ArrayList<>();
+            for (int i = 0; i < CONCERTS; i++) {
+                int index = i;
+                sizing.add(() -> {
+                    ConcertRows counted = new ConcertRows(false, 0, 0, 0);
+                    concert(index, bases, counted);
+                    return counted.counts;
+                });
+            }
+            List<long[]> sizes = collectAll(writers, sizing);
+            long nextTransaction = bases.transaction();
+            long nextTicket = bases.ticket();
+            long nextRefund = bases.refund();
+            for (int i = 0; i < CONCERTS; i++) {
+                firstTransaction[i] = (int) nextTransaction;
+                firstTicket[i] = (int) nextTicket;
+                firstRefund[i] = (int) nextRefund;
+                nextTransaction += sizes.get(i)[Table.TRANSACTIONS.ordinal()];
+                nextTicket += sizes.get(i)[Table.TICKETS.ordinal()];
+                nextRefund += sizes.get(i)[Table.REFUNDS.ordinal()];
+            }
+            if (Math.max(nextTransaction, Math.max(nextTicket, nextRefund)) > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The dataset needs more keys than an INT column holds; generate fewer concerts.");
+            }
+            System.out.printf("%-16s %,12d concerts sized in %8.2f s%n", "Planning", CONCERTS,
+                    (System.nanoTime() - phaseStarted) / 1_000_000_000.0);
+
+            phaseStarted = System.nanoTime();
+            LongAdder[] written = new LongAdder[Table.values().length];
+            for (int i = 0; i < written.length; i++) {
+                written[i] = new LongAdder();
+            }
+            List<Callable<Long>> concerts = new ArrayList<>();
+            for (int i = 0; i < CONCERTS; i++) {
+                int index = i;
+                concerts.add(() -> writeConcert(pool, bases, index, firstTransaction[index], firstTicket[index],
+                        firstRefund[index], written));
+            }
+            long concertRows = runAll(writers, concerts);
+            for (Table table : List.of(Table.CONCERTS, Table.PRICES, Table.TRANSACTIONS, Table.TICKETS, Table.REFUNDS,
+                    Table.TICKET_OWNERSHIP)) {
+                totals[table.ordinal()] = written[table.ordinal()].sum();
+            }
+            report("Concerts & sales", concertRows, phaseStarted);
+
+            phaseStarted = System.nanoTime();
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+                SalesRollup.rebuild(connection);
+                connection.commit();
+            }
+            System.out.printf("%-16s rebuilt in %8.2f s%n", "MonthlySales", (System.nanoTime() - phaseStarted) / 1_000_000_000.0);
+        } finally {
+            writers.shutdownNow();
+        }
+
+        long rows = 0;
+        for (Table table : Table.values()) {
+            System.out.printf("  %-18s %,14d%n", table.name().toLowerCase(), totals[table.ordinal()]);
+            rows += totals[table.ordinal()];
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        System.out.printf("Generated %,d rows in %.2f s (%,.0f rows/s overall)%n", rows, seconds, rows / seconds);
+        System.exit(0);
+    }
+
+    private static Bases bases(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("""
+             SELECT
+                 (SELECT COALESCE(MAX(company_code), 0) FROM Companies) AS companies,
+                 (SELECT COALESCE(MAX(artist_code), 0) FROM Artists) AS artists,
+                 (SELECT COALESCE(MAX(venue_code), 0) FROM Venues) AS venues,
+                 (SELECT COALESCE(MAX(customer_code), 0) FROM Customers) AS customers,
+                 (SELECT COALESCE(MAX(ban_code), 0) FROM Bans) AS bans,
+                 (SELECT COALESCE(MAX(concert_code), 0) FROM Concerts) AS concerts,
+                 (SELECT COALESCE(MAX(transaction_code), 0) FROM Transactions) AS transactions,
+                 (SELECT COALESCE(MAX(ticket_code), 0) FROM Tickets) AS tickets,
+                 (SELECT COALESCE(MAX(refund_code), 0) FROM Refunds) AS refunds;
+             """)) {
+            rs.next();
+            return new Bases(rs.getInt("companies") + 1, rs.getInt("artists") + 1, rs.getInt("venues") + 1,
+                    rs.getInt("customers") + 1, rs.getInt("bans") + 1, rs.getInt("concerts") + 1,
+                    rs.getInt("transactions") + 1, rs.getInt("tickets") + 1, rs.getInt("refunds") + 1);
+        }
+    }
+
+    private static void report(String phase, long rows, long phaseStarted) {
+        double seconds = (System.nanoTime() - phaseStarted) / 1_000_000_000.0;
+        System.out.printf("%-16s %,12d rows in %8.2f s  (%,.0f rows/s)%n", phase, rows, seconds,
+                seconds == 0 ? 0.0 : rows / seconds);
+    }
+
+    // ---- Owners ----
+
+    private static Object[] company(int index, Bases bases) {
+        SplittableRandom random = stream(COMPANY_STREAM, index);
+        int city = random.nextInt(CITIES.length);
+        int code = bases.company() + index;
+        return new Object[]{code, pick(random, STAGE_WORDS) + " " + pick(random, new String[]{"Records", "Music", "Entertainment", "Productions"}),
+                (1 + random.nextInt(999)) + " " + pick(random, LAST_NAMES) + " St", CITIES[city], PROVINCES[city],
+                "Philippines", postalCode(random), "info" + code + "@label.example.com", phoneNumber(random), "active"};
+    }
+
+    // The first draws of the artist's stream; artistRow continues the same stream for the remaining columns
+    private static Artist artist(SplittableRandom random) {
+        double popularity = Math.pow(random.nextDouble(), 3); // A few stars, a long tail
+        String stageName = random.nextInt(3) == 0
+                ? pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES)
+                : pick(random, STAGE_WORDS) + " " + pick(random, STAGE_WORDS);
+        return new Artist(stageName, popularity);
+    }
+
+    private static Object[] artistRow(int index, Bases bases) {
+        SplittableRandom random = stream(ARTIST_STREAM, index);
+        Artist artist = artist(random);
+        int code = bases.artist() + index;
+        return new Object[]{code, bases.company() + random.nextInt(COMPANIES), artist.stageName(), pick(random, GENRES),
+                pick(random, FIRST_NAMES), pick(random, LAST_NAMES), birthDate(random, 1965, 2006),
+                "artist" + code + "@label.example.com", phoneNumber(random), "Filipino"};
+    }
+
+    private static Venue venue(SplittableRandom random) {
+        // Log-uniform between a 600-seat theater and a 50,000-seat stadium, in whole rows of 50
+        int capacity = (int) Math.round(Math.exp(Math.log(600) + random.nextDouble() * Math.log(50_000.0 / 600)) / 50) * 50;
+        String name = CITIES[random.nextInt(CITIES.length)] + " " + pick(random, STAGE_WORDS) + " " + pick(random, VENUE_KINDS);
+        return new Venue(name, capacity);
+    }
+
+    private static Object[] venueRow(int index, Bases bases) {
+        SplittableRandom random = stream(VENUE_STREAM, index);
+        Venue venue = venue(random);
+        int city = random.nextInt(CITIES.length);
+        return new Object[]{bases.venue() + index, venue.name(), pick(random, LAST_NAMES) + " Ave", CITIES[city],
+                PROVINCES[city], "Barangay " + (1 + random.nextInt(200)), postalCode(random), venue.capacity()};
+    }
+
+    // ---- Customers ----
+
+    private static long writeCustomers(ConnectionPool pool, Bases bases, int from, int to) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            SplittableRandom random = stream(CUSTOMER_STREAM, i);
+            int code = bases.customer() + i;
+            Date birthDate = customerBirthDate(random);
+            String firstName = pick(random, FIRST_NAMES);
+            String lastName = pick(random, LAST_NAMES);
+            rows.add(new Object[]{code, firstName, lastName, birthDate,
+                    "c" + code + "." + SEED + "@gen.example.com", phoneNumber(random)});
+        }
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            insert(connection, Table.CUSTOMERS, rows);
+            connection.commit();
+        }
+        return rows.size();
+    }
+
+    // Drawn first from the customer's stream, so buyers can be age-checked without generating the whole row
+    private static Date customerBirthDate(SplittableRandom random) {
+        return birthDate(random, 1955, 2010);
+    }
+
+    private static LocalDate customerBirthDate(int customerIndex) {
+        return customerBirthDate(stream(CUSTOMER_STREAM, customerIndex)).toLocalDate();
+    }
+
+    private static long writeBans(Connection connection, Bases bases) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        long written = 0;
+        for (int i = 0; i < CUSTOMERS; i++) {
+            SplittableRandom random = stream(BAN_STREAM, i);
+            if (random.nextDouble() >= BAN_RATE) {
+                continue;
+            }
+            rows.add(new Object[]{bases.ban() + (int) written, bases.customer() + i, pick(random, BAN_REASONS)});
+            written++;
+            if (rows.size() == BATCH_SIZE) {
+                insert(connection, Table.BANS, rows);
+                rows.clear();
+            }
+        }
+        insert(connection, Table.BANS, rows);
+        return written;
+    }
+
+    // Heavy buyers come first: customer i buys about as often as 1/sqrt(i)
+    private static int pickCustomer(SplittableRandom random) {
+        double u = random.nextDouble();
+        return (int) (CUSTOMERS * u * u);
+    }
+
+    // A few redraws find an adult for restricted concerts; if none turns up the last one buys regardless
+    private static int pickCustomer(SplittableRandom random, LocalDate concertDate, int minimumAge, int except) {
+        int customer = pickCustomer(random);
+        for (int attempt = 0; attempt < 8; attempt++) {
+            if (customer != except && (minimumAge == 0
+                    || !customerBirthDate(customer).plusYears(minimumAge).isAfter(concertDate))) {
+                break;
+            }
+            customer = pickCustomer(random);
+        }
+        return customer;
+    }
+
+    // ---- Concerts and sales ----
+
+    private static long writeConcert(ConnectionPool pool, Bases bases, int index, int firstTransaction, int firstTicket,
+                                     int firstRefund, LongAdder[] written) throws SQLException {
+        ConcertRows rows = new ConcertRows(true, firstTransaction, firstTicket, firstRefund);
+        concert(index, bases, rows);
+        long total = 0;
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            for (Table table : Table.values()) {
+                List<Object[]> tableRows = rows.rows.get(table.ordinal());
+                insert(connection, table, tableRows);
+                written[table.ordinal()].add(tableRows.size());
+                total += tableRows.size();
+            }
+            connection.commit();
+        }
+        return total;
+    }
+
+    // Generates concert `index` and its whole sales history; draws only from the concert's own stream
+    private static void concert(int index, Bases bases, ConcertRows out) {
+        SplittableRandom random = stream(CONCERT_STREAM, index);
+        int concertCode = bases.concert() + index;
+        int artistIndex = random.nextInt(ARTISTS);
+        Artist artist = artist(stream(ARTIST_STREAM, artistIndex));
+        int venueIndex = random.nextInt(VENUES);
+        Venue venue = venue(stream(VENUE_STREAM, venueIndex));
+        LocalDate concertDate = concertDate(random);
+        String restrictions = random.nextInt(4) == 0 ? "18+" : "G";
+        int minimumAge = EligibilityIndex.minimumAge(restrictions);
+        String title = artist.stageName() + " " + pick(random, TOUR_NAMES) + " " + concertDate.getYear();
+        if (title.length() > 50) {
+            title = title.substring(0, 50);
+        }
+
+        // Popular artists charge more and sell out more often
+        int tierCount = 1 + random.nextInt(TIER_NAMES.length);
+        double basePrice = Math.round((600 + artist.popularity() * 4000 + random.nextInt(800)) / 50.0) * 50.0;
+        double fill = Math.min(1.0, Math.max(0.05, 0.3 + 0.6 * artist.popularity() + 0.3 * (random.nextDouble() - 0.5)));
+
+        // Concerts after AS_OF have only sold what their sales window has let them sell so far
+        long daysAfterAsOf = ChronoUnit.DAYS.between(AS_OF, concertDate);
+        int minDaysBefore = (int) Math.max(0, daysAfterAsOf);
+        double elapsed = Math.max(0.0, (SALES_WINDOW_DAYS - minDaysBefore) / (double) SALES_WINDOW_DAYS);
+        String status = daysAfterAsOf > 0 ? "approved" : "concluded";
+
+        int capacity = venue.capacity();
+        int held = 0;
+        for (int tier = 0; tier < tierCount; tier++) {
+            String ticketType = TIER_NAMES[TIER_NAMES.length - tierCount + tier];
+            BigDecimal price = BigDecimal.valueOf(basePrice * TIER_MULTIPLES[TIER_NAMES.length - tierCount + tier])
+                    .setScale(2, RoundingMode.HALF_UP);
+            out.add(Table.PRICES, ticketType, concertCode, price);
+
+            // Same split as SeatLayout's derived plan: equal sections, the remainder in the last, rows of 50
+            int seatCount = capacity / tierCount + (tier == tierCount - 1 ? capacity % tierCount : 0);
+            int sold = (int) Math.min(seatCount, Math.round(seatCount * fill * elapsed * (0.85 + 0.3 * random.nextDouble())));
+            int offset = 0;
+            while (offset < sold) {
+                int size = Math.min(sold - offset, 1 + weighted(random, GROUP_WEIGHTS));
+                held += purchase(random, out, concertCode, concertDate, minimumAge, minDaysBefore, ticketType, price,
+                        tier + 1, offset, size, bases);
+                offset += size;
+            }
+        }
+        // Concerts rows are written first, so this is added last only to know tickets_available
+        out.add(Table.CONCERTS, concertCode, bases.artist() + artistIndex, bases.venue() + venueIndex, title,
+                artist.stageName(), restrictions, Date.valueOf(concertDate), capacity - held, capacity, status);
+    }
+
+    // One purchase of `size` adjacent seats and whatever later happened to it; returns the tickets still held
+    private static int purchase(SplittableRandom random, ConcertRows out, int concertCode, LocalDate concertDate,
+                                int minimumAge, int minDaysBefore, String ticketType, BigDecimal price, int section,
+                                int firstOffset, int size, Bases bases) {
+        int buyer = pickCustomer(random, concertDate, minimumAge, -1);
+        LocalDateTime bought = purchaseTime(random, concertDate, minDaysBefore);
+        String paymentMethod = pick(random, PAYMENT_METHODS);
+        BigDecimal count = BigDecimal.valueOf(size);
+
+        // Decide the whole chain first: a ticket row carries its final transaction and seat
+        LocalDateTime transferred = random.nextDouble() < TRANSFER_RATE ? later(random, bought, concertDate) : null;
+        int recipient = transferred != null ? pickCustomer(random, concertDate, minimumAge, buyer) : buyer;
+        LocalDateTime refunded = random.nextDouble() < REFUND_RATE
+                ? later(random, transferred != null ? transferred : bought, concertDate) : null;
+
+        int buyTransaction = out.transaction(bases.customer() + buyer, "buy", bought, price.multiply(count), paymentMethod);
+        int transferTransaction = 0;
+        if (transferred != null) {
+            transferTransaction = out.transaction(bases.customer() + recipient, "transfer", transferred,
+                    BigDecimal.valueOf(TicketingService.TRANSFER_FEE).multiply(count).setScale(2, RoundingMode.HALF_UP),
+                    pick(random, PAYMENT_METHODS));
+        }
+        int holder = bases.customer() + (transferred != null ? recipient : buyer);
+        int heldTransaction = transferred != null ? transferTransaction : buyTransaction;
+        int refundTransaction = 0;
+        if (refunded != null) {
+            refundTransaction = out.transaction(holder, "refund", refunded,
+                    price.multiply(count).multiply(BigDecimal.valueOf(TicketingService.REFUND_FEE_PERCENTAGE))
+                            .setScale(2, RoundingMode.HALF_UP), paymentMethod);
+        }
+
+        for (int offset = firstOffset; offset < firstOffset + size; offset++) {
+            String seatNumber = section + "-" + (offset / SeatLayout.DEFAULT_SEATS_PER_ROW + 1)
+                    + "-" + (offset % SeatLayout.DEFAULT_SEATS_PER_ROW + 1);
+            int ticketCode = out.ticket(concertCode, heldTransaction, ticketType, seatNumber, price, refunded != null);
+            int seq = 1;
+            out.add(Table.TICKET_OWNERSHIP, ticketCode, seq++, bases.customer() + buyer, buyTransaction, "buy",
+                    Timestamp.valueOf(bought));
+            if (transferred != null) {
+                out.add(Table.TICKET_OWNERSHIP, ticketCode, seq++, holder, transferTransaction, "transfer",
+                        Timestamp.valueOf(transferred));
+            }
+            if (refunded != null) {
+                out.refund(heldTransaction, ticketCode);
+                out.add(Table.TICKET_OWNERSHIP, ticketCode, seq, holder, refundTransaction, "refund",
+                        Timestamp.valueOf(refunded));
+            }
+        }
+        return refunded != null ? 0 : size;
+    }
+
+    // Seasonal: months by MONTH_WEIGHTS, and a weekday draw is usually moved to the following Friday-Sunday
+    private static LocalDate concertDate(SplittableRandom random) {
+        int year = FIRST_YEAR + random.nextInt(YEARS);
+        LocalDate first = LocalDate.of(year, 1 + weighted(random, MONTH_WEIGHTS), 1);
+        LocalDate date = first.plusDays(random.nextInt(first.lengthOfMonth()));
+        if (date.getDayOfWeek().getValue() < DayOfWeek.FRIDAY.getValue() && random.nextInt(10) < 7) {
+            date = date.plusDays(DayOfWeek.FRIDAY.getValue() - date.getDayOfWeek().getValue() + random.nextInt(3));
+        }
+        return date;
+    }
+
+    // A third of the sales land in the first week on sale; the rest build up towards the concert.
+    // Only called while the window is open as of AS_OF, i.e. minDaysBefore <= SALES_WINDOW_DAYS
+    private static LocalDateTime purchaseTime(SplittableRandom random, LocalDate concertDate, int minDaysBefore) {
+        int daysBefore;
+        if (random.nextInt(3) == 0) {
+            daysBefore = SALES_WINDOW_DAYS - random.nextInt(7);
+        } else {
+            daysBefore = (int) (SALES_WINDOW_DAYS * Math.pow(random.nextDouble(), 1.8));
+        }
+        if (daysBefore < minDaysBefore) {
+            // Would be after AS_OF: spread over the part of the sales window that has already passed
+            daysBefore = minDaysBefore + random.nextInt(SALES_WINDOW_DAYS - minDaysBefore + 1);
+        }
+        // Evenings are busier than mornings
+        int hour = 8 + (int) (16 * Math.sqrt(random.nextDouble()));
+        return concertDate.minusDays(daysBefore).atTime(hour, random.nextInt(60), random.nextInt(60));
+    }
+
+    // A follow-up 1-30 days later, or null when that would be on or after the concert or past AS_OF
+    private static LocalDateTime later(SplittableRandom random, LocalDateTime after, LocalDate concertDate) {
+        LocalDateTime at = after.plusDays(1 + random.nextInt(30)).plusMinutes(random.nextInt(24 * 60));
+        return at.isBefore(concertDate.atStartOfDay()) && at.toLocalDate().isBefore(AS_OF.plusDays(1)) ? at : null;
+    }
+
+    // ---- Helpers ----
+
+    // An independent stream per (kind, index): SplitMix64 finalizers over the seed, the kind and the index
+    private static SplittableRandom stream(int kind, long index) {
+        return new SplittableRandom(mix(mix(SEED * 31 + kind) + index));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int draw = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            draw -= weights[i];
+            if (draw < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static Date birthDate(SplittableRandom random, int fromYear, int toYear) {
+        return Date.valueOf(LocalDate.of(fromYear + random.nextInt(toYear - fromYear + 1), 1 + random.nextInt(12),
+                1 + random.nextInt(28)));
+    }
+
+    private static String phoneNumber(SplittableRandom random) {
+        return "09" + (100_000_000 + random.nextInt(900_000_000));
+    }
+
+    private static String postalCode(SplittableRandom random) {
+        return Integer.toString(1000 + random.nextInt(8000));
+    }
+
+    // One batched statement per BATCH_SIZE rows, sent as a multi-row INSERT by rewriteBatchedStatements
+    private static void insert(Connection connection, Table table, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(table.insertQuery)) {
+            int pending = 0;
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i] == null) {
+                        ps.setNull(i + 1, Types.VARCHAR);
+                    } else {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                }
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+    }
+
+    private static long runAll(ExecutorService writers, List<Callable<Long>> tasks) throws Exception {
+        long total = 0;
+        for (long rows : collectAll(writers, tasks)) {
+            total += rows;
+        }
+        return total;
+    }
+
+    // Runs the tasks on the writers and returns their results in order; the first failure cancels the rest
+    private static <T> List<T> collectAll(ExecutorService writers, List<Callable<T>> tasks) throws Exception {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(writers.submit(task));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            for (Future<T> future : futures) {
+                future.cancel(false);
+            }
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+        return results;
+    }
+}
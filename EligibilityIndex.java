@@ -0,0 +1,210 @@
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// In-memory answers to "is this customer banned?" and "is this customer old enough?" for the sale and
+// refund paths. Banned customer codes are a bit set replaced whole whenever a checksum over the rows of Bans
+// changes (checked every REFRESH_SECONDS, or at once through refreshBans); refunds, which pay money out,
+// confirm a customer is not banned against the table itself. Birth dates are kept as yyyymmdd ints in pages indexed
+// by customer code, loaded on first use; a customer's birth date is not expected to change. Lookups of
+// customers already seen allocate nothing and take no locks.
+public class EligibilityIndex {
+
+    static final long REFRESH_SECONDS = Long.getLong("concerttix.eligibility.refreshSeconds", 30L);
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int NOT_LOADED = 0;
+    private static final int NO_BIRTH_DATE = -1;
+
+    public enum Check {
+        ELIGIBLE,
+        BANNED,
+        UNDERAGE,
+        UNKNOWN_CUSTOMER
+    }
+
+    private final ConnectionPool pool;
+    private final ScheduledExecutorService refresher;
+    private volatile BitSet banned; // null until Bans has been read once
+    // COUNT(*) and the row checksum of the Bans the set was built from; reloading is skipped while they hold
+    private long banCount;
+    private long banChecksum;
+    // Grown copy-on-write under the lock; entries are written at most once, from NOT_LOADED to their value
+    private volatile AtomicIntegerArray[] birthDatePages = new AtomicIntegerArray[0];
+    // Today as yyyymmdd, recomputed when the day rolls over
+    private volatile int today;
+    private volatile long todayEndsAtMillis;
+
+    public EligibilityIndex(ConnectionPool pool) {
+        this.pool = pool;
+        refreshQuietly();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "eligibility-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, REFRESH_SECONDS, REFRESH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public boolean isBanned(int customerCode) throws SQLException {
+        BitSet bans = banned;
+        if (bans == null) {
+            refreshBans(); // The first load failed; never treat an unread Bans table as empty
+            bans = banned;
+        }
+        return customerCode >= 0 && bans.get(customerCode);
+    }
+
+    // Asks Bans directly, inside the caller's transaction. A ban the set has not seen yet triggers a reload.
+    public boolean isBanned(Connection connection, int customerCode) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT 1 FROM Bans WHERE customer_code = ? LIMIT 1")) {
+            ps.setInt(1, customerCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+            }
+        }
+        BitSet bans = banned;
+        if (bans == null || !bans.get(customerCode)) {
+            refresher.execute(this::refreshQuietly);
+        }
+        return true;
+    }
+
+    // A customer with no birth date on file does not meet an age limit, as TIMESTAMPDIFF on NULL never did
+    public Check check(int customerCode, int minimumAge) throws SQLException {
+        int birthDate = birthDate(customerCode);
+        if (birthDate == NOT_LOADED) {
+            return Check.UNKNOWN_CUSTOMER;
+        }
+        if (isBanned(customerCode)) {
+            return Check.BANNED;
+        }
+        if (minimumAge > 0 && (birthDate == NO_BIRTH_DATE || (today() - birthDate) / 10_000 < minimumAge)) {
+            return Check.UNDERAGE;
+        }
+        return Check.ELIGIBLE;
+    }
+
+    // Entry restrictions are free text; only "<n>+" (e.g. '18+') sets an age limit
+    static int minimumAge(String entryRestrictions) {
+        if (entryRestrictions == null || !entryRestrictions.endsWith("+")) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(entryRestrictions.substring(0, entryRestrictions.length() - 1).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // yyyymmdd, NO_BIRTH_DATE, or NOT_LOADED when there is no such customer
+    private int birthDate(int customerCode) throws SQLException {
+        if (customerCode <= 0) {
+            return NOT_LOADED;
+        }
+        AtomicIntegerArray[] pages = birthDatePages;
+        int pageIndex = customerCode >>> PAGE_BITS;
+        if (pageIndex < pages.length && pages[pageIndex] != null) {
+            int birthDate = pages[pageIndex].get(customerCode & (PAGE_SIZE - 1));
+            if (birthDate != NOT_LOADED) {
+                return birthDate;
+            }
+        }
+
+        int birthDate;
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT birth_date FROM Customers WHERE customer_code = ?")) {
+            ps.setInt(1, customerCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return NOT_LOADED; // Not remembered, so a customer created later is found
+                }
+                Date date = rs.getDate("birth_date");
+                birthDate = date == null ? NO_BIRTH_DATE : yyyymmdd(date.toLocalDate());
+            }
+        }
+        page(pageIndex).set(customerCode & (PAGE_SIZE - 1), birthDate);
+        return birthDate;
+    }
+
+    private synchronized AtomicIntegerArray page(int pageIndex) {
+        AtomicIntegerArray[] pages = birthDatePages;
+        if (pageIndex >= pages.length) {
+            AtomicIntegerArray[] grown = new AtomicIntegerArray[Math.max(pageIndex + 1, pages.length * 2)];
+            System.arraycopy(pages, 0, grown, 0, pages.length);
+            pages = grown;
+        }
+        if (pages[pageIndex] == null) {
+            pages[pageIndex] = new AtomicIntegerArray(PAGE_SIZE);
+        }
+        birthDatePages = pages;
+        return pages[pageIndex];
+    }
+
+    private int today() {
+        if (System.currentTimeMillis() >= todayEndsAtMillis) {
+            LocalDate date = LocalDate.now();
+            today = yyyymmdd(date);
+            todayEndsAtMillis = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        return today;
+    }
+
+    private static int yyyymmdd(LocalDate date) {
+        return date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    // Rebuilds the banned set if Bans changed since the last refresh; returns whether it did. The checksum
+    // covers every row, so a ban lifted while another is added, or moved to another customer, is noticed
+    // although the count and the highest ban_code stay the same.
+    public synchronized boolean refreshBans() throws SQLException {
+        String checksumQuery = """
+        SELECT COUNT(*) AS bans, COALESCE(SUM(CRC32(CONCAT_WS('-', ban_code, customer_code))), 0) AS checksum
+        FROM Bans
+        """;
+        long count;
+        long checksum;
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(checksumQuery)) {
+                rs.next();
+                if (banned != null && rs.getLong("bans") == banCount && rs.getLong("checksum") == banChecksum) {
+                    return false;
+                }
+                count = rs.getLong("bans");
+                checksum = rs.getLong("checksum");
+            }
+            BitSet rebuilt = new BitSet();
+            try (ResultSet rs = stmt.executeQuery("SELECT customer_code FROM Bans")) {
+                while (rs.next()) {
+                    rebuilt.set(rs.getInt("customer_code"));
+                }
+            }
+            banned = rebuilt;
+            banCount = count;
+            banChecksum = checksum;
+            return true;
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refreshBans();
+        } catch (SQLException e) {
+            System.err.println("Error refreshing banned customers: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free log-linear latency histogram in microseconds. Each power of two is split into SUB_BUCKETS
+// linear buckets, so any recorded value is reported within 1/SUB_BUCKETS (about 3%) of its true value,
+// from 1 µs up to about 2^40 µs, in a fixed few kilobytes regardless of how many samples are recorded.
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAGNITUDES = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray((MAGNITUDES + 1) * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        record(Math.max(0, nanos / 1_000));
+    }
+
+    public void record(long micros) {
+        counts.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    // Values below SUB_BUCKETS get one bucket each; above that, the top SUB_BUCKET_BITS bits pick the bucket
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = Math.min(63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS + 1, MAGNITUDES);
+        int subBucket = (int) (micros >>> (magnitude - 1)) & (SUB_BUCKETS - 1);
+        return magnitude * SUB_BUCKETS + subBucket;
+    }
+
+    // Upper edge of a bucket, so percentiles never under-report
+    private static long highestValueIn(int bucket) {
+        int magnitude = bucket / SUB_BUCKETS;
+        int subBucket = bucket % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return subBucket;
+        }
+        long low = (long) (SUB_BUCKETS + subBucket) << (magnitude - 1);
+        return low + (1L << (magnitude - 1)) - 1;
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public double meanMicros() {
+        long samples = count.get();
+        return samples == 0 ? 0.0 : (double) totalMicros.get() / samples;
+    }
+
+    public long maxMicros() {
+        return maxMicros.get();
+    }
+
+    // e.g. percentileMicros(99.9) for p999
+    public long percentileMicros(double percentile) {
+        long samples = count.get();
+        if (samples == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * samples));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length(); bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(bucket), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    public String summary() {
+        return String.format("n=%d mean=%.2f ms p50=%.2f ms p99=%.2f ms p999=%.2f ms max=%.2f ms", count(),
+                meanMicros() / 1000.0, percentileMicros(50) / 1000.0, percentileMicros(99) / 1000.0,
+                percentileMicros(99.9) / 1000.0, maxMicros() / 1000.0);
+    }
+}
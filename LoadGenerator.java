@@ -0,0 +1,235 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Flash-sale load generator: seeds fresh concerts, releases every client at once and has them race through
+// TicketingService's sale path until the purchase attempts run out, then checks that nothing was oversold.
+// Runs against a local MySQL/MariaDB concerttix database reached through the same concerttix.bench.host, .user
+// and .password properties as Benchmarks; the load itself is set with -Dconcerttix.load.* properties, e.g.
+//   java -cp .:mysql-connector-j.jar -Dconcerttix.load.clients=2000 -Dconcerttix.load.concertSkew=1.2 LoadGenerator
+// Clients are platform threads (Java 17); each attempt's latency includes waiting for a pooled connection.
+public class LoadGenerator {
+
+    static final int CLIENTS = Integer.getInteger("concerttix.load.clients", 1000);
+    static final int ATTEMPTS = Integer.getInteger("concerttix.load.attempts", 10_000);
+    static final int POOL_SIZE = Integer.getInteger("concerttix.load.poolSize", 50);
+    static final int CONCERTS = Integer.getInteger("concerttix.load.concerts", 3);
+    static final int SEATS_PER_CONCERT = Integer.getInteger("concerttix.load.seatsPerConcert", 6000);
+    static final int CUSTOMERS = Integer.getInteger("concerttix.load.customers", 20_000);
+    static final int MAX_QUANTITY = Integer.getInteger("concerttix.load.maxQuantity", 4);
+    // Zipf exponent over concerts: 0 spreads buyers evenly, larger values pile them onto the first concert
+    static final double CONCERT_SKEW = Double.parseDouble(System.getProperty("concerttix.load.concertSkew", "1.0"));
+    // "best" lets the seat map choose; "pick" has buyers name seats, skewed to the front by seatSkew
+    static final String SEAT_MODE = System.getProperty("concerttix.load.seatMode", "pick");
+    static final double SEAT_SKEW = Double.parseDouble(System.getProperty("concerttix.load.seatSkew", "2.0"));
+    static final boolean KEEP_DATA = Boolean.getBoolean("concerttix.load.keepData");
+    static final long SEED = Long.getLong("concerttix.load.seed", 7L);
+
+    private record OversellCheck(int concertCode, int capacity, int ticketsAvailable, int liveTickets) {
+
+        boolean consistent() {
+            return ticketsAvailable >= 0 && liveTickets <= capacity && liveTickets + ticketsAvailable == capacity;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (ConnectionPool pool = MyJDBC.createPool(Benchmarks.HOST, Benchmarks.USER, Benchmarks.PASSWORD, POOL_SIZE)) {
+            BenchmarkFixture fixture = new BenchmarkFixture(SEED);
+            try (Connection connection = pool.getConnection()) {
+                fixture.createOwners(connection);
+                fixture.createCustomers(connection, CUSTOMERS);
+                for (int i = 0; i < CONCERTS; i++) {
+                    fixture.createConcert(connection, 0, SEATS_PER_CONCERT);
+                }
+            }
+            try {
+                run(pool, fixture);
+            } finally {
+                if (!KEEP_DATA) {
+                    try (Connection connection = pool.getConnection()) {
+                        fixture.remove(connection);
+                    }
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(ConnectionPool pool, BenchmarkFixture fixture) throws Exception {
+        TicketingService service = new TicketingService(pool, new SeatMaps(pool), new ReportCache(),
+                new ReferenceDataCache(pool), new EligibilityIndex(pool), new SeatHolds());
+        double[] concertCdf = zipfCdf(fixture.concertCodes.size(), CONCERT_SKEW);
+        // Load every seat map before the sale opens, as a running box office would have them
+        for (int concertCode : fixture.concertCodes) {
+            service.seatMap(concertCode);
+        }
+
+        System.out.printf("Flash sale: %d client(s), %d attempt(s), %d concert(s) x %d seats, seat mode %s, pool %d%n",
+                CLIENTS, ATTEMPTS, CONCERTS, SEATS_PER_CONCERT, SEAT_MODE, POOL_SIZE);
+
+        LatencyHistogram latency = new LatencyHistogram();
+        Map<TicketingService.Status, LongAdder> outcomes = new ConcurrentHashMap<>();
+        LongAdder ticketsSold = new LongAdder();
+        LongAdder clientErrors = new LongAdder();
+        AtomicInteger remaining = new AtomicInteger(ATTEMPTS);
+        CountDownLatch ready = new CountDownLatch(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        TicketingService.LockErrors lockErrorsBefore = service.lockErrors();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.execute(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (remaining.getAndDecrement() > 0) {
+                    long started = System.nanoTime();
+                    try {
+                        TicketingService.SaleResult result = attempt(service, fixture, concertCdf);
+                        latency.recordNanos(System.nanoTime() - started);
+                        outcomes.computeIfAbsent(result.status(), status -> new LongAdder()).increment();
+                        if (result.succeeded()) {
+                            ticketsSold.add(result.ticketCodes().size());
+                        }
+                    } catch (SQLException | RuntimeException e) {
+                        latency.recordNanos(System.nanoTime() - started);
+                        clientErrors.increment();
+                    }
+                }
+            });
+        }
+
+        ready.await();
+        long started = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.DAYS);
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        TicketingService.LockErrors lockErrorsAfter = service.lockErrors();
+
+        System.out.println("\n--- Flash Sale Results ---");
+        System.out.printf("Wall clock: %.2f s | Attempts: %d (%.0f/s) | Tickets sold: %d (%.0f/s)%n", seconds,
+                latency.count(), latency.count() / seconds, ticketsSold.sum(), ticketsSold.sum() / seconds);
+        System.out.println("Latency: " + latency.summary());
+        Map<TicketingService.Status, Long> sortedOutcomes = new EnumMap<>(TicketingService.Status.class);
+        outcomes.forEach((status, count) -> sortedOutcomes.put(status, count.sum()));
+        sortedOutcomes.forEach((status, count) -> System.out.printf("  %-20s %d%n", status, count));
+        if (clientErrors.sum() > 0) {
+            System.out.println("  Client-side errors:  " + clientErrors.sum());
+        }
+        System.out.printf("Deadlocks (1213): %d | Lock wait timeouts (1205): %d%n",
+                lockErrorsAfter.deadlocks() - lockErrorsBefore.deadlocks(),
+                lockErrorsAfter.lockWaitTimeouts() - lockErrorsBefore.lockWaitTimeouts());
+        pool.printStats();
+
+        System.out.println("\n--- Oversell Check ---");
+        boolean allConsistent = true;
+        long liveTotal = 0;
+        for (OversellCheck check : oversellChecks(pool, fixture.concertCodes)) {
+            allConsistent &= check.consistent();
+            liveTotal += check.liveTickets();
+            System.out.printf("Concert %d: capacity %d, sold %d, tickets_available %d -> %s%n", check.concertCode(),
+                    check.capacity(), check.liveTickets(), check.ticketsAvailable(), check.consistent() ? "OK" : "MISMATCH");
+        }
+        if (liveTotal != ticketsSold.sum()) {
+            allConsistent = false;
+            System.out.println("Tickets in the database (" + liveTotal + ") differ from confirmed sales (" + ticketsSold.sum() + ").");
+        }
+        System.out.println(allConsistent ? "No oversell detected." : "OVERSELL OR INVENTORY DRIFT DETECTED.");
+    }
+
+    private static TicketingService.SaleResult attempt(TicketingService service, BenchmarkFixture fixture,
+                                                       double[] concertCdf) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int concertCode = fixture.concertCodes.get(sample(concertCdf, random.nextDouble()));
+        int customerCode = fixture.customerCodes.get(random.nextInt(fixture.customerCodes.size()));
+        String tier = BenchmarkFixture.TIERS[random.nextInt(BenchmarkFixture.TIERS.length)];
+        int quantity = 1 + random.nextInt(MAX_QUANTITY);
+
+        if ("best".equalsIgnoreCase(SEAT_MODE)) {
+            return service.sellBestAvailable(new TicketingService.BestAvailableRequest(
+                    customerCode, concertCode, tier, quantity, "card"));
+        }
+
+        // Named seats: a block starting at a front-skewed seat, cut short at the end of its row
+        SeatLayout layout = service.seatMap(concertCode).layout();
+        SeatLayout.Section section = layout.section(tier);
+        int offset = (int) (section.seatCount() * Math.pow(random.nextDouble(), SEAT_SKEW));
+        int rowEnd = Math.min((offset / section.seatsPerRow() + 1) * section.seatsPerRow(), section.seatCount());
+        List<String> seats = new ArrayList<>(quantity);
+        for (int seat = offset; seat < Math.min(offset + quantity, rowEnd); seat++) {
+            seats.add(layout.labelOf(section.firstOrdinal() + seat));
+        }
+        return service.sellTickets(new TicketingService.SaleRequest(customerCode, concertCode, tier, seats, "card"));
+    }
+
+    private static double[] zipfCdf(int items, double exponent) {
+        double[] cdf = new double[items];
+        double total = 0;
+        for (int i = 0; i < items; i++) {
+            total += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = total;
+        }
+        for (int i = 0; i < items; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, double u) {
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Live tickets are those not refunded; with no refunds during the sale they must match the inventory counter
+    private static List<OversellCheck> oversellChecks(ConnectionPool pool, List<Integer> concertCodes) throws SQLException {
+        String checkQuery = """
+        SELECT c.seating_capacity, c.tickets_available,
+               (SELECT COUNT(*) FROM Tickets t
+                WHERE t.concert_code = c.concert_code
+                  AND NOT EXISTS (SELECT 1 FROM Refunds r WHERE r.ticket_code = t.ticket_code)) AS live_tickets
+        FROM Concerts c
+        WHERE c.concert_code = ?;
+        """;
+        List<OversellCheck> checks = new ArrayList<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(checkQuery)) {
+            for (int concertCode : concertCodes) {
+                ps.setInt(1, concertCode);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        checks.add(new OversellCheck(concertCode, rs.getInt("seating_capacity"),
+                                rs.getInt("tickets_available"), rs.getInt("live_tickets")));
+                    }
+                }
+            }
+        }
+        return checks;
+    }
+}
@@ -1,9 +1,12 @@
-import java.sql.Connection;
 import java.util.InputMismatchException;
 
 public class Main {
 
-    static Connection connection = null;
+    static ConnectionPool pool = null;
+    static TicketingService service = null;
+    static ReportCache reportCache = null;
+    static ReferenceDataCache referenceData = null;
+    static SeatHolds seatHolds = null;
 
     public static void main(String[] args) {
 
@@ -28,6 +31,9 @@ public class Main {
                         case 2:
                             inputRun = false;
                             programRun = false;
+                            if (pool != null) {
+                                pool.close();
+                            }
                             System.out.println("Exiting program...");
                             break;
                         default:
@@ -41,13 +47,19 @@ public class Main {
     }
 
     private static void connectionsMenu() {
-        if (connection == null) {
-            connection = MyJDBC.setupConnection();
+        if (pool == null) {
+            pool = MyJDBC.setupConnection();
+            pool.queryStats().startPeriodicDump();
+            reportCache = new ReportCache();
+            referenceData = new ReferenceDataCache(pool);
+            seatHolds = new SeatHolds();
+            service = new TicketingService(pool, new SeatMaps(pool), reportCache, referenceData,
+                    new EligibilityIndex(pool), seatHolds);
         }
 
-        ConcertRecords records = new ConcertRecords(connection);
-        ConcertTransactions transactions = new ConcertTransactions(connection);
-        ConcertReports reports = new ConcertReports(connection);
+        ConcertRecords records = new ConcertRecords(pool, referenceData);
+        ConcertTransactions transactions = new ConcertTransactions(service);
+        ConcertReports reports = new ConcertReports(pool, reportCache);
 
         boolean programRun = true;
         boolean inputRun;
@@ -57,7 +69,9 @@ public class Main {
             System.out.println("[1] Records");
             System.out.println("[2] Transactions");
             System.out.println("[3] Reports");
-            System.out.println("[4] Exit");
+            System.out.println("[4] Connection Pool Stats");
+            System.out.println("[5] Query Stats");
+            System.out.println("[6] Exit");
 
             inputRun = true;
             while (inputRun) {
@@ -78,6 +92,16 @@ public class Main {
                             reports.reportMenu();
                             break;
                         case 4:
+                            inputRun = false;
+                            pool.printStats();
+                            break;
+                        case 5:
+                            inputRun = false;
+                            pool.queryStats().printStats();
+                            referenceData.printStats();
+                            seatHolds.printStats();
+                            break;
+                        case 6:
                             inputRun = false;
                             programRun = false;
                             System.out.println("Exiting to main menu...");
@@ -1,17 +1,26 @@
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.Scanner;
 
 public class MyJDBC {
 
     static Scanner sc = new Scanner(System.in);
 
+    // Pool sizing can be tuned with -Dconcerttix.pool.maxSize, .checkoutTimeoutMs and .keepAliveMs
+    static final int POOL_MAX_SIZE = Integer.getInteger("concerttix.pool.maxSize", 10);
+    static final long POOL_CHECKOUT_TIMEOUT_MS = Long.getLong("concerttix.pool.checkoutTimeoutMs", 30_000L);
+    static final long POOL_KEEP_ALIVE_MS = Long.getLong("concerttix.pool.keepAliveMs", 60_000L);
+
+    // rewriteBatchedStatements turns JDBC batches into multi-row statements (one round trip per batch)
+    // useServerPrepStmts prepares on the server once per pooled statement (see ConnectionPool's statement cache)
+    static final String CONNECTION_OPTIONS = "rewriteBatchedStatements=true&useServerPrepStmts=true";
+
     @SuppressWarnings("Nullability")
-    public static Connection setupConnection(){
+    public static ConnectionPool setupConnection(){
 
-        Connection connection = null;
-        while (connection == null){
+        ConnectionPool pool = null;
+        while (pool == null){
             System.out.print("Connection URL ('host':'port number'): ");
             String url = sc.nextLine().trim();
 
@@ -21,19 +30,39 @@ public class MyJDBC {
             System.out.print("Password: ");
             String password = sc.nextLine().trim();
 
-            try {
-                connection = DriverManager.getConnection(
-                        "jdbc:mysql://" + url + "/concerttix",
-                        root, //username of db
-                        password); //password of db
+            ConnectionPool candidate = createPool(url, root, password, POOL_MAX_SIZE);
+
+            // Borrow once so bad credentials are reported here instead of on the first menu action
+            try (Connection connection = candidate.getConnection()) {
+                if (!connection.isValid(ConnectionPool.VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Connection is not valid.");
+                }
+                pool = candidate;
                 System.out.println("Connection successful!\n");
 
             } catch (SQLException e) {
+                candidate.close();
                 System.out.println("Troubleshoot: check if connection is on or login credentials are correct.");
             }
         }
 
-        return connection;
+        return pool;
+    }
+
+    // Non-interactive pool for tools that take their connection settings from system properties
+    public static ConnectionPool createPool(String hostAndPort, String username, String password, int maxSize) {
+        return new ConnectionPool(
+                "jdbc:mysql://" + hostAndPort + "/concerttix?" + CONNECTION_OPTIONS,
+                username, //username of db
+                password, //password of db
+                maxSize,
+                POOL_CHECKOUT_TIMEOUT_MS,
+                POOL_KEEP_ALIVE_MS);
+    }
+
+    // "?, ?, ?" for building IN (...) lists of bind parameters
+    public static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
     }
 
     public static int getUserInput(String prompt) {
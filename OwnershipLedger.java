@@ -0,0 +1,88 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+// Maintains TicketOwnership, the append-only history of who held each ticket. Tickets.transaction_code only
+// remembers the latest holder; the ledger keeps every step, numbered per ticket from seq 1 (the purchase).
+// Writers append inside their own transaction while they still hold the ticket rows' locks, so the next
+// seq cannot be taken by a concurrent writer.
+public class OwnershipLedger {
+
+    public record OwnershipEvent(int seq, String eventType, int customerCode, String customerName,
+                                 Integer transactionCode, Timestamp eventTime) {
+    }
+
+    // The next seq for the ticket in the outer query; a primary key lookup on (ticket_code, seq)
+    static final String NEXT_SEQ = """
+        (SELECT COALESCE(MAX(o.seq), 0) + 1 FROM TicketOwnership o WHERE o.ticket_code = Tickets.ticket_code)""";
+
+    private OwnershipLedger() {
+    }
+
+    // Appends one entry per ticket for the given transaction, typed and dated as that transaction was stored:
+    // a 'buy' for its buyer, a 'transfer' for the recipient, a 'refund' for the customer who gave tickets back
+    static void recordTransaction(Connection connection, int transactionCode, List<Integer> ticketCodes) throws SQLException {
+        if (ticketCodes.isEmpty()) {
+            return;
+        }
+        String appendQuery = """
+        INSERT INTO TicketOwnership (ticket_code, seq, customer_code, transaction_code, event_type, event_time)
+        SELECT Tickets.ticket_code, %s,
+               Transactions.customer_code, Transactions.transaction_code, Transactions.transaction_type,
+               Transactions.transaction_date
+        FROM Tickets
+        JOIN Transactions ON Transactions.transaction_code = ?
+        WHERE Tickets.ticket_code IN (%s);
+        """.formatted(NEXT_SEQ, MyJDBC.placeholders(ticketCodes.size()));
+        try (PreparedStatement ps = connection.prepareStatement(appendQuery)) {
+            ps.setInt(1, transactionCode);
+            for (int i = 0; i < ticketCodes.size(); i++) {
+                ps.setInt(i + 2, ticketCodes.get(i));
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    // Starts the history of tickets that have none (e.g. bulk imported ones) from their current transaction
+    static int backfill(Connection connection) throws SQLException {
+        String backfillQuery = """
+        INSERT INTO TicketOwnership (ticket_code, seq, customer_code, transaction_code, event_type, event_time)
+        SELECT Tickets.ticket_code, 1, Transactions.customer_code, Transactions.transaction_code,
+               Transactions.transaction_type, Transactions.transaction_date
+        FROM Tickets
+        JOIN Transactions ON Transactions.transaction_code = Tickets.transaction_code
+        WHERE NOT EXISTS (SELECT 1 FROM TicketOwnership o WHERE o.ticket_code = Tickets.ticket_code);
+        """;
+        try (PreparedStatement ps = connection.prepareStatement(backfillQuery)) {
+            return ps.executeUpdate();
+        }
+    }
+
+    // Every entry for one ticket in order: the first is the original buyer, the last the current state
+    static List<OwnershipEvent> history(Connection connection, int ticketCode) throws SQLException {
+        String historyQuery = """
+        SELECT o.seq, o.event_type, o.customer_code, o.transaction_code, o.event_time,
+               Customers.first_name, Customers.last_name
+        FROM TicketOwnership o
+        JOIN Customers ON Customers.customer_code = o.customer_code
+        WHERE o.ticket_code = ?
+        ORDER BY o.seq;
+        """;
+        List<OwnershipEvent> events = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(historyQuery)) {
+            ps.setInt(1, ticketCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    events.add(new OwnershipEvent(rs.getInt("seq"), rs.getString("event_type"),
+                            rs.getInt("customer_code"), rs.getString("first_name") + " " + rs.getString("last_name"),
+                            rs.getObject("transaction_code", Integer.class), rs.getTimestamp("event_time")));
+                }
+            }
+        }
+        return events;
+    }
+}
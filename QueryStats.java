@@ -0,0 +1,293 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// Per-SQL execution statistics gathered by wrapping the Connection, Statement and ResultSet objects the pool
+// hands out. Statements are keyed by their SQL text with whitespace collapsed and IN (?, ?, ...) lists of any
+// length folded together, so each of the embedded queries shows up as one line however it is called.
+public class QueryStats {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("concerttix.stats.enabled", "true"));
+    static final long DUMP_INTERVAL_SECONDS = Long.getLong("concerttix.stats.dumpSeconds", 60L);
+    static final Path DUMP_FILE = Path.of(System.getProperty("concerttix.stats.logFile", "query-stats.log"));
+    static final int SQL_DISPLAY_WIDTH = 70;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public static class StatementStats {
+
+        final String sql;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder lockWaitTimeouts = new LongAdder();
+        final LongAdder deadlocks = new LongAdder();
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        public String sql() {
+            return sql;
+        }
+
+        public long executions() {
+            return latency.count();
+        }
+
+        public double totalMillis() {
+            return latency.meanMicros() * latency.count() / 1000.0;
+        }
+    }
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private ScheduledExecutorService dumper;
+    private long executionsAtLastDump;
+
+    // Returns the connection unchanged when instrumentation is switched off
+    public Connection wrap(Connection connection) {
+        if (!ENABLED) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    static String normalize(String sql) {
+        String collapsed = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+        if (collapsed.endsWith(";")) {
+            collapsed = collapsed.substring(0, collapsed.length() - 1).stripTrailing();
+        }
+        return PLACEHOLDER_LIST.matcher(collapsed).replaceAll("(?, ...)");
+    }
+
+    private StatementStats statsFor(String sql) {
+        return statements.computeIfAbsent(normalize(sql), StatementStats::new);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result = QueryStats.invoke(target, method, args);
+            if (result instanceof PreparedStatement prepared && args != null && args[0] instanceof String sql) {
+                return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class}, new StatementHandler(prepared, statsFor(sql), proxy));
+            }
+            if (result instanceof Statement statement) {
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                        new Class<?>[]{Statement.class}, new StatementHandler(statement, null, proxy));
+            }
+            return result;
+        }
+    }
+
+    // Times every execute call; plain Statements are keyed by the SQL passed to execute instead
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final StatementStats preparedStats;
+        private final Object connectionProxy;
+
+        StatementHandler(Statement target, StatementStats preparedStats, Object connectionProxy) {
+            this.target = target;
+            this.preparedStats = preparedStats;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("getConnection")) {
+                return connectionProxy;
+            }
+            if (!EXECUTE_METHODS.contains(method.getName())) {
+                return QueryStats.invoke(target, method, args);
+            }
+            StatementStats stats = args != null && args.length > 0 && args[0] instanceof String sql
+                    ? statsFor(sql) : preparedStats;
+            if (stats == null) {
+                return QueryStats.invoke(target, method, args);
+            }
+
+            long started = System.nanoTime();
+            try {
+                Object result = QueryStats.invoke(target, method, args);
+                stats.latency.recordNanos(System.nanoTime() - started);
+                return countRows(stats, result);
+            } catch (SQLException e) {
+                stats.latency.recordNanos(System.nanoTime() - started);
+                stats.errors.increment();
+                if (e.getErrorCode() == TicketingService.MYSQL_LOCK_WAIT_TIMEOUT) {
+                    stats.lockWaitTimeouts.increment();
+                } else if (e.getErrorCode() == TicketingService.MYSQL_DEADLOCK) {
+                    stats.deadlocks.increment();
+                }
+                throw e;
+            }
+        }
+
+        private Object countRows(StatementStats stats, Object result) {
+            if (result instanceof ResultSet rs) {
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, new ResultSetHandler(rs, stats));
+            }
+            if (result instanceof Integer count && count > 0) {
+                stats.rows.add(count);
+            } else if (result instanceof Long count && count > 0) {
+                stats.rows.add(count);
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    stats.rows.add(Math.max(count, 0));
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    stats.rows.add(Math.max(count, 0));
+                }
+            }
+            return result;
+        }
+    }
+
+    // Counts rows as the caller reads them, so streamed results are counted without buffering
+    private static class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final StatementStats stats;
+
+        ResultSetHandler(ResultSet target, StatementStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryStats.invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                stats.rows.increment();
+            }
+            return result;
+        }
+    }
+
+    // Busiest statements first, by total time spent executing them
+    public List<StatementStats> snapshot() {
+        List<StatementStats> snapshot = new ArrayList<>(statements.values());
+        snapshot.sort(Comparator.comparingDouble(StatementStats::totalMillis).reversed());
+        return snapshot;
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public void printStats() {
+        System.out.println("\n--- Query Stats ---");
+        print(new PrintWriter(System.out, true));
+    }
+
+    private void print(PrintWriter out) {
+        List<StatementStats> snapshot = snapshot();
+        if (snapshot.isEmpty()) {
+            out.println("No statements executed yet.");
+            out.flush();
+            return;
+        }
+        out.printf("%-" + SQL_DISPLAY_WIDTH + "s %8s %10s %9s %9s %9s %9s %6s %5s %5s%n", "SQL", "Count", "Total ms",
+                "Mean ms", "p50 ms", "p99 ms", "Rows", "Errors", "1205", "1213");
+        for (StatementStats stats : snapshot) {
+            LatencyHistogram latency = stats.latency;
+            String sql = stats.sql.length() > SQL_DISPLAY_WIDTH
+                    ? stats.sql.substring(0, SQL_DISPLAY_WIDTH - 3) + "..." : stats.sql;
+            out.printf("%-" + SQL_DISPLAY_WIDTH + "s %8d %10.1f %9.3f %9.3f %9.3f %9d %6d %5d %5d%n", sql,
+                    latency.count(), stats.totalMillis(), latency.meanMicros() / 1000.0,
+                    latency.percentileMicros(50) / 1000.0, latency.percentileMicros(99) / 1000.0,
+                    stats.rows.sum(), stats.errors.sum(), stats.lockWaitTimeouts.sum(), stats.deadlocks.sum());
+        }
+        out.flush();
+    }
+
+    // Appends the table to DUMP_FILE every DUMP_INTERVAL_SECONDS while there is new activity; 0 disables it
+    public synchronized void startPeriodicDump() {
+        if (!ENABLED || DUMP_INTERVAL_SECONDS <= 0 || dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-stats-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleWithFixedDelay(this::dump, DUMP_INTERVAL_SECONDS, DUMP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    private void dump() {
+        long executions = statements.values().stream().mapToLong(StatementStats::executions).sum();
+        if (executions == executionsAtLastDump) {
+            return;
+        }
+        executionsAtLastDump = executions;
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(DUMP_FILE, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            out.println("=== Query stats at " + LocalDateTime.now().withNano(0) + " ===");
+            print(out);
+            out.println();
+        } catch (IOException e) {
+            System.err.println("Error writing query stats to " + DUMP_FILE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Size-bounded LRU cache of the rarely changing facts about a concert: its title, artist, venue, date,
+// restrictions, status and every price tier, loaded together by two primary key reads. Inventory
+// (tickets_available) is never cached. TicketingService drops a concert when it cancels it, and whatever
+// changes prices must call invalidateConcert; changes made by other processes show up within TTL_SECONDS.
+public class ReferenceDataCache {
+
+    static final int MAX_ENTRIES = Integer.getInteger("concerttix.refdata.maxEntries", 1024);
+    static final long TTL_SECONDS = Long.getLong("concerttix.refdata.ttlSeconds", 300L);
+
+    public record Tier(String ticketType, BigDecimal price) {
+    }
+
+    // Tiers are ordered by price, highest first
+    public record ConcertInfo(int concertCode, String concertTitle, String performerName, String artistName,
+                              String entryRestrictions, Date concertDate, String status, int seatingCapacity,
+                              String venueName, List<Tier> tiers) {
+
+        public boolean onSale() {
+            return "approved".equals(status);
+        }
+
+        // Ticket types compare case-insensitively, as Prices.ticket_type does in the database; null if not on sale
+        public BigDecimal price(String ticketType) {
+            for (Tier tier : tiers) {
+                if (tier.ticketType().equalsIgnoreCase(ticketType)) {
+                    return tier.price();
+                }
+            }
+            return null;
+        }
+    }
+
+    public record CacheStats(int entries, long hits, long misses, long evictions, long invalidations) {
+    }
+
+    private record Entry(ConcertInfo concert, long loadedAtNanos) {
+    }
+
+    private final ConnectionPool pool;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    // Bumped by every invalidation so a load that raced with a change is not cached
+    private long generation;
+
+    public ReferenceDataCache(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    // Null when there is no such concert; misses are not cached, so a new concert is seen at once
+    public ConcertInfo concert(int concertCode) throws SQLException {
+        return concert(null, concertCode);
+    }
+
+    // For callers already holding a pooled connection, so a miss does not borrow a second one
+    public ConcertInfo concert(Connection connection, int concertCode) throws SQLException {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(concertCode);
+            if (entry != null && System.nanoTime() - entry.loadedAtNanos() <= TTL_SECONDS * 1_000_000_000L) {
+                hits++;
+                return entry.concert();
+            }
+            if (entry != null) {
+                entries.remove(concertCode);
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        // Loaded outside the lock so one slow read does not hold up lookups of other concerts
+        ConcertInfo concert;
+        if (connection != null) {
+            concert = load(connection, concertCode);
+        } else {
+            try (Connection borrowed = pool.getConnection()) {
+                concert = load(borrowed, concertCode);
+            }
+        }
+        if (concert != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(concertCode, new Entry(concert, System.nanoTime()));
+                }
+            }
+        }
+        return concert;
+    }
+
+    private static ConcertInfo load(Connection connection, int concertCode) throws SQLException {
+        String concertQuery = """
+        SELECT
+            Concerts.concert_title, Concerts.performer_name, Concerts.entry_restrictions, Concerts.concert_date,
+            Concerts.status, Concerts.seating_capacity, Venues.venue_name, Artists.stage_name
+        FROM Concerts
+        JOIN Venues ON Concerts.venue_code = Venues.venue_code
+        LEFT JOIN Artists ON Concerts.artist_code = Artists.artist_code
+        WHERE Concerts.concert_code = ?;
+        """;
+        String pricesQuery = """
+        SELECT ticket_type, price
+        FROM Prices
+        WHERE concert_code = ?
+        ORDER BY price DESC, ticket_type;
+        """;
+
+        List<Tier> tiers = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(pricesQuery)) {
+            ps.setInt(1, concertCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    tiers.add(new Tier(rs.getString("ticket_type"), rs.getBigDecimal("price")));
+                }
+            }
+        }
+        try (PreparedStatement ps = connection.prepareStatement(concertQuery)) {
+            ps.setInt(1, concertCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new ConcertInfo(concertCode, rs.getString("concert_title"), rs.getString("performer_name"),
+                        rs.getString("stage_name"), rs.getString("entry_restrictions"), rs.getDate("concert_date"),
+                        rs.getString("status"), rs.getInt("seating_capacity"), rs.getString("venue_name"),
+                        List.copyOf(tiers));
+            }
+        }
+    }
+
+    // For any change to a concert's details or prices, including its cancellation
+    public synchronized void invalidateConcert(int concertCode) {
+        generation++;
+        if (entries.remove(concertCode) != null) {
+            invalidations++;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(entries.size(), hits, misses, evictions, invalidations);
+    }
+
+    public void printStats() {
+        CacheStats stats = stats();
+        long lookups = stats.hits() + stats.misses();
+        System.out.println("\n--- Reference Data Cache Stats ---");
+        System.out.println("Cached concerts: " + stats.entries() + " (max " + MAX_ENTRIES + ", TTL " + TTL_SECONDS + " s)");
+        System.out.printf("Hits: %d | Misses: %d | Hit rate: %.1f%%%n", stats.hits(), stats.misses(),
+                lookups == 0 ? 0.0 : 100.0 * stats.hits() / lookups);
+        System.out.println("Evictions: " + stats.evictions() + " | Invalidated entries: " + stats.invalidations());
+    }
+}
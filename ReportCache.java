@@ -0,0 +1,115 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Size-bounded LRU cache of report results keyed by report type and year.
+// Closed years (before the current one) stay until evicted; open years are dropped by TicketingService
+// writes and, to pick up writes from other processes, after OPEN_PERIOD_TTL_SECONDS.
+public class ReportCache {
+
+    static final int MAX_ENTRIES = Integer.getInteger("concerttix.reportCache.maxEntries", 256);
+    static final long OPEN_PERIOD_TTL_SECONDS = Long.getLong("concerttix.reportCache.openTtlSeconds", 60L);
+
+    public record Key(String report, int year) {
+    }
+
+    public record CacheStats(int entries, long hits, long misses, long evictions, long invalidations) {
+    }
+
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    private record Entry(Object value, long loadedAtNanos) {
+    }
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    // Bumped by every invalidation so a load that raced with a write is not cached
+    private long generation;
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String report, int year, Loader<T> loader) throws SQLException {
+        Key key = new Key(report, year);
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && !expired(key, entry)) {
+                hits++;
+                return (T) entry.value();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        // Loaded outside the lock so one slow report does not block the others
+        T value = loader.load();
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(key, new Entry(value, System.nanoTime()));
+            }
+        }
+        return value;
+    }
+
+    private boolean expired(Key key, Entry entry) {
+        return isOpen(key.year())
+                && System.nanoTime() - entry.loadedAtNanos() > OPEN_PERIOD_TTL_SECONDS * 1_000_000_000L;
+    }
+
+    private static boolean isOpen(int year) {
+        return year >= LocalDate.now().getYear();
+    }
+
+    // Drops the current and future years; called after every committed write
+    public synchronized void invalidateOpenPeriods() {
+        generation++;
+        invalidations += entries.size();
+        entries.keySet().removeIf(key -> isOpen(key.year()));
+        invalidations -= entries.size();
+    }
+
+    // Drops one year, for writes that change an already closed period (e.g. refunding last year's purchase)
+    public synchronized void invalidateYear(int year) {
+        generation++;
+        invalidations += entries.size();
+        entries.keySet().removeIf(key -> key.year() == year);
+        invalidations -= entries.size();
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(entries.size(), hits, misses, evictions, invalidations);
+    }
+
+    public void printStats() {
+        CacheStats stats = stats();
+        long lookups = stats.hits() + stats.misses();
+        System.out.println("\n--- Report Cache Stats ---");
+        System.out.println("Cached reports: " + stats.entries() + " (max " + MAX_ENTRIES + ")");
+        System.out.printf("Hits: %d | Misses: %d | Hit rate: %.1f%%%n", stats.hits(), stats.misses(),
+                lookups == 0 ? 0.0 : 100.0 * stats.hits() / lookups);
+        System.out.println("Evictions: " + stats.evictions() + " | Invalidated entries: " + stats.invalidations());
+    }
+}
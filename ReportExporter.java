@@ -0,0 +1,164 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+// Streams a report query straight from the driver to a CSV or JSON Lines file. The MySQL driver is asked
+// to stream rows one at a time (fetch size Integer.MIN_VALUE) instead of buffering the whole result,
+// so memory stays flat however many rows the report has.
+public class ReportExporter {
+
+    static final int WRITE_BUFFER_BYTES = Integer.getInteger("concerttix.export.bufferBytes", 1 << 16);
+    static final int PROGRESS_EVERY_ROWS = Integer.getInteger("concerttix.export.progressRows", 100_000);
+
+    public enum Format {
+        CSV("csv"),
+        JSON_LINES("jsonl");
+
+        final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    public record ExportResult(long rows, long elapsedNanos, Path file) {
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    public interface ParameterBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private final ConnectionPool pool;
+
+    public ReportExporter(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    public ExportResult export(String query, ParameterBinder binder, Format format, Path file)
+            throws SQLException, IOException {
+        long started = System.nanoTime();
+        long rows = 0;
+        // The connection is busy until the stream is fully read, so it is borrowed for this export only
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            binder.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery();
+                 BufferedWriter out = new BufferedWriter(
+                         new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), WRITE_BUFFER_BYTES)) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                String[] names = new String[columns];
+                boolean[] numeric = new boolean[columns];
+                for (int i = 0; i < columns; i++) {
+                    names[i] = meta.getColumnLabel(i + 1);
+                    numeric[i] = isNumeric(meta.getColumnType(i + 1));
+                }
+                if (format == Format.CSV) {
+                    writeCsvRow(out, names);
+                }
+
+                String[] values = new String[columns];
+                while (rs.next()) {
+                    for (int i = 0; i < columns; i++) {
+                        values[i] = rs.getString(i + 1);
+                    }
+                    if (format == Format.CSV) {
+                        writeCsvRow(out, values);
+                    } else {
+                        writeJsonLine(out, names, values, numeric);
+                    }
+                    rows++;
+                    if (rows % PROGRESS_EVERY_ROWS == 0) {
+                        System.out.printf("Exported %d row(s)...%n", rows);
+                    }
+                }
+            }
+        }
+        return new ExportResult(rows, System.nanoTime() - started, file);
+    }
+
+    private static boolean isNumeric(int sqlType) {
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                 Types.DECIMAL, Types.NUMERIC, Types.FLOAT, Types.REAL, Types.DOUBLE -> true;
+            default -> false;
+        };
+    }
+
+    private static void writeCsvRow(Writer out, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write('\n');
+    }
+
+    private static void writeJsonLine(Writer out, String[] names, String[] values, boolean[] numeric) throws IOException {
+        out.write('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeJsonString(out, names[i]);
+            out.write(':');
+            if (values[i] == null) {
+                out.write("null");
+            } else if (numeric[i]) {
+                out.write(values[i]);
+            } else {
+                writeJsonString(out, values[i]);
+            }
+        }
+        out.write("}\n");
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,95 @@
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Maintains MonthlySales, the per (year, month, transaction type) totals behind the annual sales report.
+// Writers add to it inside their own transaction, always as their last statement, so the rollup commits
+// or rolls back together with the Transactions rows it counts.
+public class SalesRollup {
+
+    // Each month/type total is spread over this many rows so concurrent sales do not queue on one row lock;
+    // readers sum the slots, so changing it only affects contention, never the totals. At most 127, the
+    // largest value of the TINYINT slot column.
+    static final int SLOTS = Math.min(127, Math.max(1, Integer.getInteger("concerttix.rollup.slots", 8)));
+
+    private static final String UPSERT_SUFFIX = """
+        ON DUPLICATE KEY UPDATE
+            total_amount = total_amount + VALUES(total_amount),
+            transaction_count = transaction_count + VALUES(transaction_count),
+            ticket_count = ticket_count + VALUES(ticket_count);
+        """;
+
+    private SalesRollup() {
+    }
+
+    // Adds one Transactions row covering ticketCount tickets, read back by primary key so the month matches
+    // its stored transaction_date
+    static void recordTransaction(Connection connection, int transactionCode, int ticketCount) throws SQLException {
+        String recordQuery = """
+        INSERT INTO MonthlySales (sales_year, sales_month, transaction_type, slot, total_amount, transaction_count,
+                                  ticket_count)
+        SELECT YEAR(transaction_date), MONTH(transaction_date), transaction_type, ?, COALESCE(total_amount, 0), 1, ?
+        FROM Transactions
+        WHERE transaction_code = ?
+        """ + UPSERT_SUFFIX;
+        try (PreparedStatement ps = connection.prepareStatement(recordQuery)) {
+            ps.setInt(1, nextSlot());
+            ps.setInt(2, ticketCount);
+            ps.setInt(3, transactionCode);
+            ps.executeUpdate();
+        }
+    }
+
+    // Adds a set of transactions of one type that were all written with the given transaction_date
+    static void recordTotals(Connection connection, Timestamp transactionDate, String transactionType,
+                             BigDecimal totalAmount, int transactionCount, int ticketCount) throws SQLException {
+        if (transactionCount == 0) {
+            return;
+        }
+        String recordQuery = """
+        INSERT INTO MonthlySales (sales_year, sales_month, transaction_type, slot, total_amount, transaction_count,
+                                  ticket_count)
+        VALUES (YEAR(?), MONTH(?), ?, ?, ?, ?, ?)
+        """ + UPSERT_SUFFIX;
+        try (PreparedStatement ps = connection.prepareStatement(recordQuery)) {
+            ps.setTimestamp(1, transactionDate);
+            ps.setTimestamp(2, transactionDate);
+            ps.setString(3, transactionType);
+            ps.setInt(4, nextSlot());
+            ps.setBigDecimal(5, totalAmount);
+            ps.setInt(6, transactionCount);
+            ps.setInt(7, ticketCount);
+            ps.executeUpdate();
+        }
+    }
+
+    // Recomputes the whole rollup from Transactions; the caller owns the surrounding transaction. Ticket counts
+    // come from the ownership ledger entries each transaction wrote (an index lookup on transaction_code);
+    // a transaction without any, such as a cancellation refund, covered one ticket.
+    static int rebuild(Connection connection) throws SQLException {
+        String rebuildQuery = """
+        INSERT INTO MonthlySales (sales_year, sales_month, transaction_type, slot, total_amount, transaction_count,
+                                  ticket_count)
+        SELECT YEAR(transaction_date), MONTH(transaction_date), transaction_type, 0,
+               COALESCE(SUM(total_amount), 0), COUNT(*),
+               SUM(GREATEST(1, (SELECT COUNT(*) FROM TicketOwnership o
+                                WHERE o.transaction_code = Transactions.transaction_code
+                                  AND o.event_type = Transactions.transaction_type)))
+        FROM Transactions
+        WHERE transaction_type IS NOT NULL
+        GROUP BY YEAR(transaction_date), MONTH(transaction_date), transaction_type;
+        """;
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM MonthlySales");
+            return stmt.executeUpdate(rebuildQuery);
+        }
+    }
+
+    private static int nextSlot() {
+        return ThreadLocalRandom.current().nextInt(SLOTS);
+    }
+}
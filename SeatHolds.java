@@ -0,0 +1,204 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Short-lived seat holds kept in memory: a held seat is marked in its SeatMap, so no other buyer, hold or
+// best-available pick gets it, and no database transaction stays open while the buyer decides. A hold ends
+// in exactly one way: taken for a sale (take, then confirm or abandon), released, or expired TTL_SECONDS
+// after it was placed. Expiry runs on a hashed timing wheel: WHEEL_SLOTS lists of holds, one per tick of
+// TICK_MILLIS, swept one slot per tick, so placing and ending a hold is O(1) however many are live and a
+// hold expires within one tick of its deadline. Holds are per process, like the seat maps they mark.
+public class SeatHolds {
+
+    static final long TTL_SECONDS = Long.getLong("concerttix.holds.ttlSeconds", 300L);
+    static final long TICK_MILLIS = Long.getLong("concerttix.holds.tickMillis", 250L);
+    // A power of two, so a tick finds its slot with a mask
+    static final int WHEEL_SLOTS = Integer.highestOneBit(Math.max(2, Integer.getInteger("concerttix.holds.wheelSlots", 512)));
+
+    private static final int ACTIVE = 0;
+    private static final int TAKEN = 1;
+    private static final int RELEASED = 2;
+    private static final int EXPIRED = 3;
+
+    public record Hold(long holdId, int customerCode, SeatMap seatMap, String ticketType,
+                       List<String> seatNumbers, long expiresAtMillis) {
+
+        public int concertCode() {
+            return seatMap.concertCode();
+        }
+    }
+
+    public record HoldStats(int active, long placed, long converted, long released, long expired) {
+    }
+
+    private static final class Entry {
+
+        final Hold hold;
+        final long deadlineTick;
+        final AtomicInteger state = new AtomicInteger(ACTIVE);
+
+        Entry(Hold hold, long deadlineTick) {
+            this.hold = hold;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Entry> active = new ConcurrentHashMap<>();
+    // Slot i holds the entries whose deadline tick is i modulo WHEEL_SLOTS; an entry more than one turn
+    // away stays in its slot until the sweep that reaches its deadline. Ended holds are dropped lazily by
+    // the sweep of their slot, so the wheel never holds more than a TTL's worth of placed holds.
+    private final List<List<Entry>> wheel = new ArrayList<>(WHEEL_SLOTS);
+    private final long startNanos = System.nanoTime();
+    private long currentTick; // Every slot up to this tick has been swept; guarded by wheel
+    private final AtomicLong nextHoldId = new AtomicLong();
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder converted = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final ScheduledExecutorService ticker;
+
+    public SeatHolds() {
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advanceQuietly, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Null when any of the seats is already sold or held, or is not part of the map's layout
+    Hold place(SeatMap seatMap, int customerCode, String ticketType, List<String> seatNumbers) {
+        if (!seatMap.hold(seatNumbers)) {
+            return null;
+        }
+        return register(seatMap, customerCode, ticketType, List.copyOf(seatNumbers));
+    }
+
+    // Holds the best block of count adjacent seats, as SeatMap.claimBestAvailable picks it; null if none is free
+    Hold placeBestAvailable(SeatMap seatMap, int customerCode, String ticketType, int count) {
+        List<String> seats = seatMap.holdBestAvailable(ticketType, count);
+        if (seats.isEmpty()) {
+            return null;
+        }
+        return register(seatMap, customerCode, ticketType, List.copyOf(seats));
+    }
+
+    private Hold register(SeatMap seatMap, int customerCode, String ticketType, List<String> seats) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(TTL_SECONDS);
+        Hold hold = new Hold(nextHoldId.incrementAndGet(), customerCode, seatMap, ticketType, seats,
+                System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TTL_SECONDS));
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+        long deadlineTick = (System.nanoTime() - startNanos + ttlNanos + tickNanos - 1) / tickNanos;
+        Entry entry = new Entry(hold, deadlineTick);
+        active.put(hold.holdId(), entry);
+        synchronized (wheel) {
+            // A deadline the sweep has already passed goes in the next slot it will visit
+            long tick = Math.max(deadlineTick, currentTick + 1);
+            wheel.get((int) (tick & (WHEEL_SLOTS - 1))).add(entry);
+        }
+        placed.increment();
+        return hold;
+    }
+
+    // The hold while it is still active; it may still expire or be taken by someone else afterwards
+    public Hold find(long holdId) {
+        Entry entry = active.get(holdId);
+        return entry == null ? null : entry.hold;
+    }
+
+    // Ends the hold for a sale, so expiry and release no longer touch its seats; the caller must then
+    // confirm or abandon it. False if the hold had already ended.
+    boolean take(Hold hold) {
+        Entry entry = active.get(hold.holdId());
+        if (entry == null || !entry.state.compareAndSet(ACTIVE, TAKEN)) {
+            return false;
+        }
+        active.remove(hold.holdId());
+        return true;
+    }
+
+    // The sale committed: its tickets now occupy the seats
+    void confirm(Hold hold) {
+        hold.seatMap().confirmHold(hold.seatNumbers());
+        converted.increment();
+    }
+
+    // The sale failed: the seats are free again
+    void abandon(Hold hold) {
+        hold.seatMap().releaseHold(hold.seatNumbers());
+        released.increment();
+    }
+
+    // False if the hold had already ended
+    public boolean release(long holdId) {
+        Entry entry = active.get(holdId);
+        if (entry == null || !entry.state.compareAndSet(ACTIVE, RELEASED)) {
+            return false;
+        }
+        active.remove(holdId);
+        entry.hold.seatMap().releaseHold(entry.hold.seatNumbers());
+        released.increment();
+        return true;
+    }
+
+    // Sweeps every slot up to the current tick, catching up if the ticker fell behind
+    void advance() {
+        long target = (System.nanoTime() - startNanos) / TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+        List<Entry> due = new ArrayList<>();
+        synchronized (wheel) {
+            while (currentTick < target) {
+                currentTick++;
+                List<Entry> slot = wheel.get((int) (currentTick & (WHEEL_SLOTS - 1)));
+                for (int i = slot.size() - 1; i >= 0; i--) {
+                    Entry entry = slot.get(i);
+                    boolean ended = entry.state.get() != ACTIVE;
+                    if (ended || entry.deadlineTick <= currentTick) {
+                        if (!ended) {
+                            due.add(entry);
+                        }
+                        slot.set(i, slot.get(slot.size() - 1));
+                        slot.remove(slot.size() - 1);
+                    }
+                }
+            }
+        }
+        // Seats are released outside the wheel lock, so placing holds never waits on a seat map
+        for (Entry entry : due) {
+            if (entry.state.compareAndSet(ACTIVE, EXPIRED)) {
+                active.remove(entry.hold.holdId());
+                entry.hold.seatMap().releaseHold(entry.hold.seatNumbers());
+                expired.increment();
+            }
+        }
+    }
+
+    private void advanceQuietly() {
+        try {
+            advance();
+        } catch (RuntimeException e) {
+            System.err.println("Error expiring seat holds: " + e.getMessage());
+        }
+    }
+
+    public HoldStats stats() {
+        return new HoldStats(active.size(), placed.sum(), converted.sum(), released.sum(), expired.sum());
+    }
+
+    public void printStats() {
+        HoldStats stats = stats();
+        System.out.println("\n--- Seat Hold Stats ---");
+        System.out.println("Active holds: " + stats.active() + " (TTL " + TTL_SECONDS + " s, " + WHEEL_SLOTS
+                + " slots of " + TICK_MILLIS + " ms)");
+        System.out.println("Placed: " + stats.placed() + " | Sold: " + stats.converted() + " | Released: "
+                + stats.released() + " | Expired: " + stats.expired());
+    }
+}
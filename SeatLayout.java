@@ -0,0 +1,219 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Maps a concert's seat labels ("section-row-seat", e.g. "2-14-7") to dense ordinals 0..capacity-1.
+// Sections come from SeatSections; a concert without any gets a layout derived from its price tiers, which
+// is then saved there.
+public class SeatLayout {
+
+    static final int DEFAULT_SEATS_PER_ROW = 50;
+
+    public record Section(String ticketType, int sectionNumber, int rows, int seatsPerRow,
+                          int seatCount, int firstOrdinal) {
+
+        int endOrdinal() {
+            return firstOrdinal + seatCount;
+        }
+    }
+
+    private final List<Section> sections;
+    private final int capacity;
+
+    SeatLayout(List<Section> sections) {
+        this.sections = Collections.unmodifiableList(sections);
+        this.capacity = sections.isEmpty() ? 0 : sections.get(sections.size() - 1).endOrdinal();
+    }
+
+    // A concert without SeatSections rows gets its layout derived from its tiers the first time it is loaded,
+    // and that layout is saved as its SeatSections, so repricing, adding a tier or changing the capacity later
+    // never renumbers seats already sold. Runs its own database transaction when it saves; the connection
+    // must not be in the middle of one.
+    public static SeatLayout load(Connection connection, int concertCode) throws SQLException {
+        List<Section> sections = readSections(connection, concertCode);
+        if (!sections.isEmpty()) {
+            return new SeatLayout(sections);
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            // Loaders of the same concert, here or in another process, derive and save it one at a time
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT concert_code FROM Concerts WHERE concert_code = ? FOR UPDATE")) {
+                ps.setInt(1, concertCode);
+                ps.executeQuery().close();
+            }
+            sections = readSections(connection, concertCode);
+            if (sections.isEmpty()) {
+                sections = deriveSections(connection, concertCode);
+                saveSections(connection, concertCode, sections);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return new SeatLayout(sections);
+    }
+
+    private static List<Section> readSections(Connection connection, int concertCode) throws SQLException {
+        String sectionsQuery = """
+        SELECT ticket_type, section_number, row_count, seats_per_row
+        FROM SeatSections
+        WHERE concert_code = ?
+        ORDER BY section_number;
+        """;
+        List<Section> sections = new ArrayList<>();
+        int nextOrdinal = 0;
+        try (PreparedStatement ps = connection.prepareStatement(sectionsQuery)) {
+            ps.setInt(1, concertCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int rows = rs.getInt("row_count");
+                    int seatsPerRow = rs.getInt("seats_per_row");
+                    sections.add(new Section(rs.getString("ticket_type"), rs.getInt("section_number"),
+                            rows, seatsPerRow, rows * seatsPerRow, nextOrdinal));
+                    nextOrdinal += rows * seatsPerRow;
+                }
+            }
+        }
+        return sections;
+    }
+
+    // Splits the seating capacity evenly over the tiers, best tier first, in rows of DEFAULT_SEATS_PER_ROW.
+    // SeatSections stores whole rows, so a section's short last row is rounded up to a full one; the few
+    // extra seats are still bounded by Concerts.tickets_available. No tiers, no sections.
+    private static List<Section> deriveSections(Connection connection, int concertCode) throws SQLException {
+        String tiersQuery = """
+        SELECT Concerts.seating_capacity, Prices.ticket_type
+        FROM Concerts
+        JOIN Prices ON Prices.concert_code = Concerts.concert_code
+        WHERE Concerts.concert_code = ?
+        ORDER BY Prices.price DESC, Prices.ticket_type;
+        """;
+        int capacity = 0;
+        List<String> ticketTypes = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(tiersQuery)) {
+            ps.setInt(1, concertCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    capacity = rs.getInt("seating_capacity");
+                    ticketTypes.add(rs.getString("ticket_type"));
+                }
+            }
+        }
+        List<Section> sections = new ArrayList<>();
+        int nextOrdinal = 0;
+        for (int i = 0; i < ticketTypes.size(); i++) {
+            int seatCount = capacity / ticketTypes.size() + (i == ticketTypes.size() - 1 ? capacity % ticketTypes.size() : 0);
+            int rows = (seatCount + DEFAULT_SEATS_PER_ROW - 1) / DEFAULT_SEATS_PER_ROW;
+            if (rows == 0) {
+                continue; // Nothing to seat; SeatSections needs at least one row
+            }
+            sections.add(new Section(ticketTypes.get(i), i + 1, rows, DEFAULT_SEATS_PER_ROW,
+                    rows * DEFAULT_SEATS_PER_ROW, nextOrdinal));
+            nextOrdinal += rows * DEFAULT_SEATS_PER_ROW;
+        }
+        return sections;
+    }
+
+    private static void saveSections(Connection connection, int concertCode, List<Section> sections) throws SQLException {
+        String insertSectionQuery = """
+        INSERT INTO SeatSections (concert_code, ticket_type, section_number, row_count, seats_per_row)
+        VALUES (?, ?, ?, ?, ?);
+        """;
+        try (PreparedStatement ps = connection.prepareStatement(insertSectionQuery)) {
+            for (Section section : sections) {
+                ps.setInt(1, concertCode);
+                ps.setString(2, section.ticketType());
+                ps.setInt(3, section.sectionNumber());
+                ps.setInt(4, section.rows());
+                ps.setInt(5, section.seatsPerRow());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public List<Section> sections() {
+        return sections;
+    }
+
+    public Section section(String ticketType) {
+        for (Section section : sections) {
+            if (section.ticketType().equalsIgnoreCase(ticketType)) {
+                return section;
+            }
+        }
+        return null;
+    }
+
+    public Section sectionOf(int ordinal) {
+        for (Section section : sections) {
+            if (ordinal < section.endOrdinal()) {
+                return section;
+            }
+        }
+        return null;
+    }
+
+    // Returns -1 for labels that are not part of this layout, such as hand-typed legacy seat numbers
+    public int ordinalOf(String seatNumber) {
+        if (seatNumber == null) {
+            return -1;
+        }
+        String[] parts = seatNumber.trim().split("-");
+        if (parts.length != 3) {
+            return -1;
+        }
+        try {
+            int sectionNumber = Integer.parseInt(parts[0]);
+            int row = Integer.parseInt(parts[1]);
+            int seat = Integer.parseInt(parts[2]);
+            for (Section section : sections) {
+                if (section.sectionNumber() != sectionNumber) {
+                    continue;
+                }
+                if (row < 1 || seat < 1 || seat > section.seatsPerRow()) {
+                    return -1;
+                }
+                int offset = (row - 1) * section.seatsPerRow() + (seat - 1);
+                return offset < section.seatCount() ? section.firstOrdinal() + offset : -1;
+            }
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    // Rewrites each seat of this layout to its label, so "01-02-03" and "1-2-3" are sold and stored as one
+    // seat; seats outside the layout are kept as typed
+    public List<String> canonicalLabels(List<String> seatNumbers) {
+        List<String> labels = new ArrayList<>(seatNumbers.size());
+        for (String seatNumber : seatNumbers) {
+            int ordinal = ordinalOf(seatNumber);
+            labels.add(ordinal >= 0 ? labelOf(ordinal) : seatNumber);
+        }
+        return labels;
+    }
+
+    public String labelOf(int ordinal) {
+        Section section = sectionOf(ordinal);
+        if (section == null || ordinal < 0) {
+            throw new IllegalArgumentException("Seat ordinal out of range: " + ordinal);
+        }
+        int offset = ordinal - section.firstOrdinal();
+        return section.sectionNumber() + "-" + (offset / section.seatsPerRow() + 1) + "-" + (offset % section.seatsPerRow() + 1);
+    }
+}
@@ -0,0 +1,390 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Seat occupancy of one concert: one bit per seat ordinal of its SeatLayout, set when the seat is sold or held
+public class SeatMap {
+
+    private final int concertCode;
+    private final SeatLayout layout;
+    private final BitSet occupied;
+    // Seats on hold (see SeatHolds); they are set in occupied too, so every free-seat query skips them
+    private final BitSet held;
+    // Seats claimed for a sale whose transaction has not finished yet; also set in occupied
+    private final BitSet claimed;
+    // Seats whose sale committed since the last reconcile started reading Tickets, which that read may have missed
+    private final BitSet soldSinceRead;
+    // Seats whose refund committed since the last reconcile started reading Tickets, which that read may still count
+    private final BitSet releasedSinceRead;
+    // One free-run index per layout section, in the same order as layout.sections()
+    private final SeatRunIndex[] runIndexes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sold tickets whose seat number is not a label of the layout (hand-typed legacy seats)
+    private int unmappedTickets;
+
+    SeatMap(int concertCode, SeatLayout layout, BitSet occupied, int unmappedTickets) {
+        this.concertCode = concertCode;
+        this.layout = layout;
+        this.occupied = occupied;
+        this.held = new BitSet(layout.capacity());
+        this.claimed = new BitSet(layout.capacity());
+        this.soldSinceRead = new BitSet(layout.capacity());
+        this.releasedSinceRead = new BitSet(layout.capacity());
+        this.unmappedTickets = unmappedTickets;
+
+        List<SeatLayout.Section> sections = layout.sections();
+        runIndexes = new SeatRunIndex[sections.size()];
+        for (int i = 0; i < runIndexes.length; i++) {
+            runIndexes[i] = new SeatRunIndex(sections.get(i).seatCount(), sections.get(i).seatsPerRow());
+        }
+        rebuildRunIndexes();
+    }
+
+    private void rebuildRunIndexes() {
+        List<SeatLayout.Section> sections = layout.sections();
+        for (int i = 0; i < runIndexes.length; i++) {
+            runIndexes[i].build(occupied, sections.get(i).firstOrdinal());
+        }
+    }
+
+    private void setSeat(int ordinal, boolean taken) {
+        occupied.set(ordinal, taken);
+        List<SeatLayout.Section> sections = layout.sections();
+        for (int i = 0; i < runIndexes.length; i++) {
+            SeatLayout.Section section = sections.get(i);
+            if (ordinal < section.endOrdinal()) {
+                runIndexes[i].set(ordinal - section.firstOrdinal(), !taken);
+                return;
+            }
+        }
+    }
+
+    public static SeatMap load(Connection connection, int concertCode) throws SQLException {
+        SeatLayout layout = SeatLayout.load(connection, concertCode);
+        BitSet occupied = new BitSet(layout.capacity());
+        int unmapped = readOccupancy(connection, concertCode, layout, occupied);
+        return new SeatMap(concertCode, layout, occupied, unmapped);
+    }
+
+    private static int readOccupancy(Connection connection, int concertCode, SeatLayout layout,
+                                     BitSet occupied) throws SQLException {
+        String occupiedSeatsQuery = """
+        SELECT active_seat
+        FROM Tickets
+        WHERE concert_code = ? AND active_seat IS NOT NULL;
+        """;
+        int unmapped = 0;
+        try (PreparedStatement ps = connection.prepareStatement(occupiedSeatsQuery)) {
+            ps.setInt(1, concertCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int ordinal = layout.ordinalOf(rs.getString("active_seat"));
+                    if (ordinal >= 0) {
+                        occupied.set(ordinal);
+                    } else {
+                        unmapped++;
+                    }
+                }
+            }
+        }
+        return unmapped;
+    }
+
+    public int concertCode() {
+        return concertCode;
+    }
+
+    public SeatLayout layout() {
+        return layout;
+    }
+
+    // Seats outside the layout are never reported as free
+    public boolean isFree(String seatNumber) {
+        int ordinal = layout.ordinalOf(seatNumber);
+        if (ordinal < 0) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return !occupied.get(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int freeCount(String ticketType) {
+        SeatLayout.Section section = layout.section(ticketType);
+        if (section == null) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            return section.seatCount() - occupied.get(section.firstOrdinal(), section.endOrdinal()).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lists up to limit free seats of a section in seat order
+    public List<String> freeSeats(String ticketType, int limit) {
+        List<String> seats = new ArrayList<>();
+        SeatLayout.Section section = layout.section(ticketType);
+        if (section == null) {
+            return seats;
+        }
+        lock.readLock().lock();
+        try {
+            int ordinal = occupied.nextClearBit(section.firstOrdinal());
+            while (ordinal < section.endOrdinal() && seats.size() < limit) {
+                seats.add(layout.labelOf(ordinal));
+                ordinal = occupied.nextClearBit(ordinal + 1);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return seats;
+    }
+
+    public boolean isHeld(String seatNumber) {
+        int ordinal = layout.ordinalOf(seatNumber);
+        if (ordinal < 0) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return held.get(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int heldCount() {
+        lock.readLock().lock();
+        try {
+            return held.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Frees a sold seat; a seat that has since been put on hold or claimed stays with its new buyer
+    void release(String seatNumber) {
+        int ordinal = layout.ordinalOf(seatNumber);
+        if (ordinal < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (held.get(ordinal) || claimed.get(ordinal)) {
+                return;
+            }
+            setSeat(ordinal, false);
+            soldSinceRead.clear(ordinal);
+            releasedSinceRead.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Occupies all of the seats or, if any is already sold or held, none of them, until confirmClaim or
+    // releaseClaim. Seats outside the layout are left to the database's unique key.
+    boolean claim(List<String> seatNumbers) {
+        return occupyAll(seatNumbers, false);
+    }
+
+    // As claim, but the seats are marked held until confirmHold or releaseHold, and must all be in the layout
+    boolean hold(List<String> seatNumbers) {
+        return occupyAll(seatNumbers, true);
+    }
+
+    private boolean occupyAll(List<String> seatNumbers, boolean hold) {
+        int[] ordinals = new int[seatNumbers.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = layout.ordinalOf(seatNumbers.get(i));
+            if (ordinals[i] < 0 && hold) {
+                return false;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            for (int ordinal : ordinals) {
+                if (ordinal >= 0 && occupied.get(ordinal)) {
+                    return false;
+                }
+            }
+            for (int ordinal : ordinals) {
+                if (ordinal >= 0) {
+                    setSeat(ordinal, true);
+                    held.set(ordinal, hold);
+                    claimed.set(ordinal, !hold);
+                }
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The held seats were sold: they stay occupied, now by their tickets
+    void confirmHold(List<String> seatNumbers) {
+        confirm(seatNumbers, held);
+    }
+
+    // The claimed seats were sold: they stay occupied, now by their tickets
+    void confirmClaim(List<String> seatNumbers) {
+        confirm(seatNumbers, claimed);
+    }
+
+    private void confirm(List<String> seatNumbers, BitSet pending) {
+        lock.writeLock().lock();
+        try {
+            for (String seatNumber : seatNumbers) {
+                int ordinal = layout.ordinalOf(seatNumber);
+                if (ordinal >= 0) {
+                    pending.clear(ordinal);
+                    soldSinceRead.set(ordinal);
+                    releasedSinceRead.clear(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The sale of the claimed seats failed: frees the seats that are still claimed
+    void releaseClaim(List<String> seatNumbers) {
+        lock.writeLock().lock();
+        try {
+            for (String seatNumber : seatNumbers) {
+                int ordinal = layout.ordinalOf(seatNumber);
+                if (ordinal >= 0 && claimed.get(ordinal)) {
+                    claimed.clear(ordinal);
+                    setSeat(ordinal, false);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Frees the seats that are still held; a seat no longer held (e.g. sold after a reconcile) is left alone
+    void releaseHold(List<String> seatNumbers) {
+        lock.writeLock().lock();
+        try {
+            for (String seatNumber : seatNumbers) {
+                int ordinal = layout.ordinalOf(seatNumber);
+                if (ordinal >= 0 && held.get(ordinal)) {
+                    held.clear(ordinal);
+                    setSeat(ordinal, false);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Claims the best block of count adjacent free seats in a section: the front-most row that has one,
+    // then the block closest to that row's centre. Returns no seats when no row has a long enough gap.
+    List<String> claimBestAvailable(String ticketType, int count) {
+        return claimBestAvailable(ticketType, count, false);
+    }
+
+    List<String> holdBestAvailable(String ticketType, int count) {
+        return claimBestAvailable(ticketType, count, true);
+    }
+
+    private List<String> claimBestAvailable(String ticketType, int count, boolean hold) {
+        List<String> seats = new ArrayList<>();
+        int sectionIndex = layout.sections().indexOf(layout.section(ticketType));
+        if (sectionIndex < 0 || count < 1) {
+            return seats;
+        }
+        SeatLayout.Section section = layout.sections().get(sectionIndex);
+
+        lock.writeLock().lock();
+        try {
+            int firstFit = runIndexes[sectionIndex].findFirstRun(count);
+            if (firstFit < 0) {
+                return seats;
+            }
+            int start = centredStart(section, firstFit / section.seatsPerRow(), count);
+            for (int ordinal = start; ordinal < start + count; ordinal++) {
+                setSeat(ordinal, true);
+                held.set(ordinal, hold);
+                claimed.set(ordinal, !hold);
+                seats.add(layout.labelOf(ordinal));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return seats;
+    }
+
+    // Scans one row (bounded by the row width, not the venue size) for the fitting block nearest its centre
+    private int centredStart(SeatLayout.Section section, int row, int count) {
+        int rowStart = section.firstOrdinal() + row * section.seatsPerRow();
+        int rowEnd = Math.min(rowStart + section.seatsPerRow(), section.endOrdinal());
+        int idealStart = rowStart + (rowEnd - rowStart - count) / 2;
+
+        int bestStart = -1;
+        int runStart = occupied.nextClearBit(rowStart);
+        while (runStart < rowEnd) {
+            int nextTaken = occupied.nextSetBit(runStart);
+            int runEnd = nextTaken < 0 ? rowEnd : Math.min(nextTaken, rowEnd);
+            if (runEnd - runStart >= count) {
+                int candidate = Math.max(runStart, Math.min(idealStart, runEnd - count));
+                if (bestStart < 0 || Math.abs(candidate - idealStart) < Math.abs(bestStart - idealStart)) {
+                    bestStart = candidate;
+                }
+            }
+            runStart = occupied.nextClearBit(runEnd);
+        }
+        return bestStart;
+    }
+
+    // Re-reads occupancy from Tickets and adopts it, keeping seats on hold, seats claimed by sales still
+    // in flight and seats sold after the read began, and leaving free the seats refunded after it began;
+    // returns how many seats the in-memory map had wrong
+    int reconcile(Connection connection) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            // Sales confirmed and refunds released before this point committed before the read below
+            soldSinceRead.clear();
+            releasedSinceRead.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        BitSet actual = new BitSet(layout.capacity());
+        int unmapped = readOccupancy(connection, concertCode, layout, actual);
+        lock.writeLock().lock();
+        try {
+            actual.andNot(releasedSinceRead);
+            actual.or(held);
+            actual.or(claimed);
+            actual.or(soldSinceRead);
+            BitSet drift = (BitSet) occupied.clone();
+            drift.xor(actual);
+            occupied.clear();
+            occupied.or(actual);
+            rebuildRunIndexes();
+            unmappedTickets = unmapped;
+            return drift.cardinality();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int unmappedTickets() {
+        lock.readLock().lock();
+        try {
+            return unmappedTickets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
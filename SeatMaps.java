@@ -0,0 +1,76 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Lazily built seat maps for every concert being sold, kept current by TicketingService
+// and periodically reconciled against Tickets to pick up changes made outside this process
+public class SeatMaps {
+
+    static final long RECONCILE_INTERVAL_SECONDS = Long.getLong("concerttix.seatmap.reconcileSeconds", 300L);
+
+    private final ConnectionPool pool;
+    private final ConcurrentHashMap<Integer, SeatMap> maps = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reconciler;
+
+    public SeatMaps(ConnectionPool pool) {
+        this.pool = pool;
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-map-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcileAll,
+                RECONCILE_INTERVAL_SECONDS, RECONCILE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public SeatMap get(int concertCode) throws SQLException {
+        SeatMap map = maps.get(concertCode);
+        if (map != null) {
+            return map;
+        }
+        // Built outside the map lock; a sale committed while loading is picked up by the next reconcile
+        try (Connection connection = pool.getConnection()) {
+            map = SeatMap.load(connection, concertCode);
+        }
+        SeatMap existing = maps.putIfAbsent(concertCode, map);
+        return existing != null ? existing : map;
+    }
+
+    // Updates only maps already in memory; unloaded concerts are read fresh on first use
+    void markReleased(int concertCode, String seatNumber) {
+        SeatMap map = maps.get(concertCode);
+        if (map != null) {
+            map.release(seatNumber);
+        }
+    }
+
+    void invalidate(int concertCode) {
+        maps.remove(concertCode);
+    }
+
+    public int reconcile(int concertCode) throws SQLException {
+        SeatMap map = maps.get(concertCode);
+        if (map == null) {
+            return 0;
+        }
+        try (Connection connection = pool.getConnection()) {
+            return map.reconcile(connection);
+        }
+    }
+
+    public void reconcileAll() {
+        for (int concertCode : maps.keySet()) {
+            try {
+                int corrected = reconcile(concertCode);
+                if (corrected > 0) {
+                    System.err.println("Seat map for concert " + concertCode + " corrected " + corrected + " seat(s).");
+                }
+            } catch (SQLException e) {
+                System.err.println("Error reconciling seat map for concert " + concertCode + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.BitSet;
+
+// Segment tree over one section's seats (row-major offsets) that tracks runs of free seats.
+// Runs never cross the end of a row, so the longest run at any node is a block of adjacent seats.
+class SeatRunIndex {
+
+    private final int size;
+    private final int seatsPerRow;
+    // Free run touching the left edge, touching the right edge, and longest anywhere, per node
+    private final int[] prefix;
+    private final int[] suffix;
+    private final int[] longest;
+
+    SeatRunIndex(int size, int seatsPerRow) {
+        this.size = size;
+        this.seatsPerRow = seatsPerRow;
+        int nodes = 4 * Math.max(size, 1);
+        prefix = new int[nodes];
+        suffix = new int[nodes];
+        longest = new int[nodes];
+    }
+
+    // Rebuilds from the occupancy bits of ordinals base..base+size-1
+    void build(BitSet occupied, int base) {
+        if (size > 0) {
+            build(1, 0, size - 1, occupied, base);
+        }
+    }
+
+    private void build(int node, int left, int right, BitSet occupied, int base) {
+        if (left == right) {
+            int free = occupied.get(base + left) ? 0 : 1;
+            prefix[node] = suffix[node] = longest[node] = free;
+            return;
+        }
+        int mid = (left + right) >>> 1;
+        build(2 * node, left, mid, occupied, base);
+        build(2 * node + 1, mid + 1, right, occupied, base);
+        pull(node, left, mid, right);
+    }
+
+    void set(int offset, boolean free) {
+        update(1, 0, size - 1, offset, free ? 1 : 0);
+    }
+
+    private void update(int node, int left, int right, int offset, int free) {
+        if (left == right) {
+            prefix[node] = suffix[node] = longest[node] = free;
+            return;
+        }
+        int mid = (left + right) >>> 1;
+        if (offset <= mid) {
+            update(2 * node, left, mid, offset, free);
+        } else {
+            update(2 * node + 1, mid + 1, right, offset, free);
+        }
+        pull(node, left, mid, right);
+    }
+
+    private void pull(int node, int left, int mid, int right) {
+        int l = 2 * node;
+        int r = 2 * node + 1;
+        int leftLength = mid - left + 1;
+        int rightLength = right - mid;
+        boolean rowBreak = rowBreakAfter(mid);
+
+        prefix[node] = prefix[l] == leftLength && !rowBreak ? leftLength + prefix[r] : prefix[l];
+        suffix[node] = suffix[r] == rightLength && !rowBreak ? rightLength + suffix[l] : suffix[r];
+        int across = rowBreak ? 0 : suffix[l] + prefix[r];
+        longest[node] = Math.max(Math.max(longest[l], longest[r]), across);
+    }
+
+    private boolean rowBreakAfter(int offset) {
+        return (offset + 1) % seatsPerRow == 0;
+    }
+
+    public int longestRun() {
+        return size == 0 ? 0 : longest[1];
+    }
+
+    // Offset where the first (front-most, then left-most) run of at least count free seats starts, or -1
+    int findFirstRun(int count) {
+        if (size == 0 || count < 1 || longest[1] < count) {
+            return -1;
+        }
+        return find(1, 0, size - 1, count);
+    }
+
+    private int find(int node, int left, int right, int count) {
+        if (left == right) {
+            return left;
+        }
+        int mid = (left + right) >>> 1;
+        int l = 2 * node;
+        int r = 2 * node + 1;
+        if (longest[l] >= count) {
+            return find(l, left, mid, count);
+        }
+        if (!rowBreakAfter(mid) && suffix[l] + prefix[r] >= count) {
+            return mid - suffix[l] + 1;
+        }
+        return find(r, mid + 1, right, count);
+    }
+}
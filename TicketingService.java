@@ -0,0 +1,1133 @@
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless ticketing operations. Every call borrows its own pooled connection and keeps no
+// per-call state on the instance, so one service can be shared by any number of threads.
+public class TicketingService {
+
+    static final double REFUND_FEE_PERCENTAGE = 0.10; // 10% fee
+    static final double TRANSFER_FEE = 100.00;
+    static final int MYSQL_DUPLICATE_KEY = 1062;
+    static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    static final int MYSQL_DEADLOCK = 1213;
+    static final int DEADLOCK_RETRIES = Integer.getInteger("concerttix.tx.deadlockRetries", 2);
+    static final int CANCELLATION_CHUNK_SIZE = Integer.getInteger("concerttix.cancel.chunkSize", 1000);
+
+    public enum Status {
+        SUCCESS,
+        BANNED,
+        AGE_RESTRICTED,
+        CONCERT_NOT_FOUND,
+        SOLD_OUT,
+        INVALID_TICKET_TYPE,
+        SEAT_TAKEN,
+        INVALID_SEAT,
+        HOLD_EXPIRED,
+        TICKET_NOT_OWNED,
+        ALREADY_TRANSFERRED,
+        ALREADY_CANCELLED,
+        FAILED
+    }
+
+    interface Outcome {
+        Status status();
+
+        String message();
+
+        default boolean succeeded() {
+            return status() == Status.SUCCESS;
+        }
+    }
+
+    public record TicketTier(String ticketType, double price) {
+    }
+
+    // One order: any number of seats of one ticket type, paid in a single transaction
+    public record SaleRequest(int customerCode, int concertCode, String ticketType,
+                              List<String> seatNumbers, String paymentMethod) {
+    }
+
+    public record SaleResult(Status status, String message, int transactionCode,
+                             List<Integer> ticketCodes, List<String> seatNumbers) implements Outcome {
+        static SaleResult rejected(Status status, String message) {
+            return new SaleResult(status, message, 0, List.of(), List.of());
+        }
+    }
+
+    public record BestAvailableRequest(int customerCode, int concertCode, String ticketType,
+                                       int quantity, String paymentMethod) {
+    }
+
+    // Names the seats to hold, or leaves seatNumbers empty to hold the best block of quantity adjacent seats
+    public record HoldRequest(int customerCode, int concertCode, String ticketType,
+                              List<String> seatNumbers, int quantity) {
+    }
+
+    public record HoldResult(Status status, String message, long holdId, List<String> seatNumbers,
+                             long expiresAtMillis) implements Outcome {
+        static HoldResult rejected(Status status, String message) {
+            return new HoldResult(status, message, 0, List.of(), 0);
+        }
+    }
+
+    public record RefundRequest(int customerCode, int[] ticketCodes, String paymentMethod) {
+    }
+
+    public record RefundFailure(int ticketCode, String reason) {
+    }
+
+    // Valid tickets are refunded even when others in the same request are rejected
+    public record RefundResult(Status status, String message, int transactionCode, double totalRefundFee,
+                               List<Integer> refundedTickets, List<RefundFailure> failures) implements Outcome {
+        static RefundResult rejected(Status status, String message) {
+            return new RefundResult(status, message, 0, 0.0, List.of(), List.of());
+        }
+    }
+
+    public record TransferRequest(int fromCustomerCode, int toCustomerCode, int[] ticketCodes, String paymentMethod) {
+    }
+
+    public record TransferFailure(int ticketCode, String reason) {
+    }
+
+    // A transfer is all-or-nothing; every ticket that blocked it is listed in failures
+    public record TransferResult(Status status, String message, int transactionCode,
+                                 List<Integer> transferredTickets, List<TransferFailure> failures) implements Outcome {
+        static TransferResult rejected(Status status, String message) {
+            return new TransferResult(status, message, 0, List.of(), List.of());
+        }
+    }
+
+    // Transactions rolled back by InnoDB lock conflicts since the service was created
+    public record LockErrors(long deadlocks, long lockWaitTimeouts) {
+    }
+
+    public record CancellationResult(Status status, String message, int refundsRecorded) implements Outcome {
+        static CancellationResult rejected(Status status, String message) {
+            return new CancellationResult(status, message, 0);
+        }
+    }
+
+    // Called after every committed cancellation chunk with running totals for the whole run
+    @FunctionalInterface
+    public interface CancellationProgress {
+        void onProgress(int refundsRecorded, int ticketsProcessed, int totalTickets);
+    }
+
+    private record CancellationChunk(Status status, String message, int refundsRecorded, int ticketsProcessed,
+                                     int totalTickets, boolean done) implements Outcome {
+    }
+
+    private record SeatRef(int concertCode, String seatNumber) {
+    }
+
+    private record RefundableTicket(int ticketCode, int transactionCode, int concertCode,
+                                    String seatNumber, BigDecimal price) {
+    }
+
+    @FunctionalInterface
+    private interface TransactionWork<T extends Outcome> {
+        T execute(Connection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface FailureHandler<T extends Outcome> {
+        T onFailure(String message);
+    }
+
+    final ConnectionPool pool;
+    final SeatMaps seatMaps;
+    final ReportCache reportCache;
+    final ReferenceDataCache referenceData;
+    final EligibilityIndex eligibility;
+    final SeatHolds seatHolds;
+    private final AtomicLong deadlocks = new AtomicLong();
+    private final AtomicLong lockWaitTimeouts = new AtomicLong();
+
+    public TicketingService(ConnectionPool pool, SeatMaps seatMaps, ReportCache reportCache,
+                            ReferenceDataCache referenceData, EligibilityIndex eligibility, SeatHolds seatHolds) {
+        this.pool = pool;
+        this.seatMaps = seatMaps;
+        this.reportCache = reportCache;
+        this.referenceData = referenceData;
+        this.eligibility = eligibility;
+        this.seatHolds = seatHolds;
+    }
+
+    // Lists every ticket tier and price on sale for a concert, highest price first
+    public List<TicketTier> ticketTiers(int concertCode) throws SQLException {
+        ReferenceDataCache.ConcertInfo concert = referenceData.concert(concertCode);
+        List<TicketTier> tiers = new ArrayList<>();
+        if (concert != null) {
+            for (ReferenceDataCache.Tier tier : concert.tiers()) {
+                tiers.add(new TicketTier(tier.ticketType(), tier.price().doubleValue()));
+            }
+        }
+        return tiers;
+    }
+
+    public SeatMap seatMap(int concertCode) throws SQLException {
+        return seatMaps.get(concertCode);
+    }
+
+    // Returns the number of seats the in-memory map had wrong
+    public int reconcileSeatMap(int concertCode) throws SQLException {
+        seatMaps.get(concertCode);
+        return seatMaps.reconcile(concertCode);
+    }
+
+    public SaleResult sellTickets(SaleRequest request) {
+        ReferenceDataCache.ConcertInfo concert;
+        SaleResult rejected;
+        SeatMap map = null;
+        try {
+            concert = referenceData.concert(request.concertCode());
+            rejected = checkConcert(concert, request.customerCode(), request.ticketType());
+            if (rejected == null) {
+                map = seatMaps.get(request.concertCode());
+            }
+        } catch (SQLException e) {
+            return SaleResult.rejected(Status.FAILED, "Error selling tickets: " + e.getMessage());
+        }
+        if (rejected != null) {
+            return rejected;
+        }
+        // Seats are sold under their layout labels, so the unique key sees one spelling per seat
+        SaleRequest order = new SaleRequest(request.customerCode(), request.concertCode(), request.ticketType(),
+                map.layout().canonicalLabels(request.seatNumbers()), request.paymentMethod());
+        rejected = checkSeats(map, order.ticketType(), order.seatNumbers());
+        if (rejected != null) {
+            return rejected;
+        }
+
+        // The seats are claimed in the map first, so a buyer racing for them (or a hold on them) is turned
+        // away here rather than by the unique key after a round trip
+        if (!map.claim(order.seatNumbers())) {
+            return SaleResult.rejected(Status.SEAT_TAKEN, "A selected seat was just sold or put on hold.");
+        }
+        BigDecimal ticketPrice = concert.price(order.ticketType());
+        SaleResult result = inTransaction(connection -> sellTickets(connection, order, ticketPrice),
+                message -> SaleResult.rejected(Status.FAILED, "Error selling tickets: " + message));
+        if (result.succeeded()) {
+            map.confirmClaim(order.seatNumbers());
+            invalidateReports(Set.of());
+        } else {
+            map.releaseClaim(order.seatNumbers());
+            if (result.status() == Status.SEAT_TAKEN) {
+                resyncSeatMap(request.concertCode());
+            } else if (result.status() == Status.CONCERT_NOT_FOUND) {
+                referenceData.invalidateConcert(request.concertCode()); // The cached status was out of date
+            }
+        }
+        return result;
+    }
+
+    // Picks the best block of adjacent free seats in the requested tier and sells them as one order
+    public SaleResult sellBestAvailable(BestAvailableRequest request) {
+        ReferenceDataCache.ConcertInfo concert;
+        SaleResult rejected;
+        SeatMap map;
+        try {
+            concert = referenceData.concert(request.concertCode());
+            rejected = checkConcert(concert, request.customerCode(), request.ticketType());
+            map = seatMaps.get(request.concertCode());
+        } catch (SQLException e) {
+            return SaleResult.rejected(Status.FAILED, "Error selling tickets: " + e.getMessage());
+        }
+        if (rejected != null) {
+            return rejected;
+        }
+
+        // The seats are claimed in the map first so concurrent buyers are steered elsewhere
+        List<String> seats = map.claimBestAvailable(request.ticketType(), request.quantity());
+        if (seats.isEmpty()) {
+            return SaleResult.rejected(Status.SOLD_OUT,
+                    "No block of " + request.quantity() + " adjacent seats is free in " + request.ticketType() + ".");
+        }
+
+        SaleRequest order = new SaleRequest(request.customerCode(), request.concertCode(),
+                request.ticketType(), seats, request.paymentMethod());
+        BigDecimal ticketPrice = concert.price(request.ticketType());
+        SaleResult result = inTransaction(connection -> sellTickets(connection, order, ticketPrice),
+                message -> SaleResult.rejected(Status.FAILED, "Error selling tickets: " + message));
+        if (!result.succeeded()) {
+            map.releaseClaim(seats);
+            if (result.status() == Status.SEAT_TAKEN) {
+                resyncSeatMap(request.concertCode());
+            } else if (result.status() == Status.CONCERT_NOT_FOUND) {
+                referenceData.invalidateConcert(request.concertCode()); // The cached status was out of date
+            }
+        } else {
+            map.confirmClaim(seats);
+            invalidateReports(Set.of());
+        }
+        return result;
+    }
+
+    // Reserves seats for SeatHolds.TTL_SECONDS without touching the database. The concert, tier, customer
+    // and seats are checked now and the customer again by sellHeld; releaseHold or expiry frees the seats.
+    public HoldResult holdSeats(HoldRequest request) {
+        SaleResult rejected;
+        SeatMap map = null;
+        try {
+            rejected = checkConcert(referenceData.concert(request.concertCode()), request.customerCode(),
+                    request.ticketType());
+            if (rejected == null) {
+                map = seatMaps.get(request.concertCode());
+            }
+        } catch (SQLException e) {
+            return HoldResult.rejected(Status.FAILED, "Error holding seats: " + e.getMessage());
+        }
+        boolean bestAvailable = request.seatNumbers().isEmpty();
+        if (rejected == null && map.layout().capacity() == 0) {
+            rejected = SaleResult.rejected(Status.INVALID_SEAT, "This concert has no seat plan to hold seats from.");
+        }
+        if (rejected == null && bestAvailable && request.quantity() < 1) {
+            rejected = SaleResult.rejected(Status.INVALID_SEAT, "No seats selected.");
+        }
+        List<String> seatNumbers = rejected == null ? map.layout().canonicalLabels(request.seatNumbers()) : List.of();
+        if (rejected == null && !bestAvailable) {
+            rejected = checkSeats(map, request.ticketType(), seatNumbers);
+        }
+        if (rejected != null) {
+            return HoldResult.rejected(rejected.status(), rejected.message());
+        }
+
+        SeatHolds.Hold hold = bestAvailable
+                ? seatHolds.placeBestAvailable(map, request.customerCode(), request.ticketType(), request.quantity())
+                : seatHolds.place(map, request.customerCode(), request.ticketType(), seatNumbers);
+        if (hold == null) {
+            return bestAvailable
+                    ? HoldResult.rejected(Status.SOLD_OUT, "No block of " + request.quantity()
+                            + " adjacent seats is free in " + request.ticketType() + ".")
+                    : HoldResult.rejected(Status.SEAT_TAKEN, "A selected seat was just sold or put on hold.");
+        }
+        return new HoldResult(Status.SUCCESS, "Held " + hold.seatNumbers().size() + " seat(s) for "
+                + SeatHolds.TTL_SECONDS + " seconds.", hold.holdId(), hold.seatNumbers(), hold.expiresAtMillis());
+    }
+
+    // Turns a hold into a sale. The hold is taken first, so it cannot expire or be released while the sale
+    // runs; the sale is the usual single transaction, and either its tickets take over the seats or, if it
+    // fails, the seats are freed.
+    public SaleResult sellHeld(long holdId, int customerCode, String paymentMethod) {
+        SeatHolds.Hold hold = seatHolds.find(holdId);
+        if (hold == null) {
+            return SaleResult.rejected(Status.HOLD_EXPIRED, "Hold " + holdId + " has expired or was already used.");
+        }
+        if (hold.customerCode() != customerCode) {
+            return SaleResult.rejected(Status.FAILED, "Hold " + holdId + " belongs to another customer.");
+        }
+        ReferenceDataCache.ConcertInfo concert;
+        SaleResult rejected;
+        try {
+            concert = referenceData.concert(hold.concertCode());
+            rejected = checkConcert(concert, customerCode, hold.ticketType()); // A ban may have come in meanwhile
+        } catch (SQLException e) {
+            return SaleResult.rejected(Status.FAILED, "Error selling tickets: " + e.getMessage());
+        }
+        if (rejected != null) {
+            return rejected;
+        }
+        if (!seatHolds.take(hold)) {
+            return SaleResult.rejected(Status.HOLD_EXPIRED, "Hold " + holdId + " has expired or was already used.");
+        }
+
+        SaleRequest order = new SaleRequest(customerCode, hold.concertCode(), hold.ticketType(),
+                hold.seatNumbers(), paymentMethod);
+        BigDecimal ticketPrice = concert.price(hold.ticketType());
+        SaleResult result = inTransaction(connection -> sellTickets(connection, order, ticketPrice),
+                message -> SaleResult.rejected(Status.FAILED, "Error selling tickets: " + message));
+        if (result.succeeded()) {
+            seatHolds.confirm(hold);
+            invalidateReports(Set.of());
+        } else {
+            seatHolds.abandon(hold);
+            if (result.status() == Status.SEAT_TAKEN) {
+                resyncSeatMap(hold.concertCode());
+            } else if (result.status() == Status.CONCERT_NOT_FOUND) {
+                referenceData.invalidateConcert(hold.concertCode()); // The cached status was out of date
+            }
+        }
+        return result;
+    }
+
+    // False if the hold had already expired, been released or been sold
+    public boolean releaseHold(long holdId) {
+        return seatHolds.release(holdId);
+    }
+
+    // The database knew a seat the map did not; the batch does not say which, so re-read the concert
+    private void resyncSeatMap(int concertCode) {
+        try {
+            seatMaps.reconcile(concertCode);
+        } catch (SQLException e) {
+            System.err.println("Error reconciling seat map for concert " + concertCode + ": " + e.getMessage());
+        }
+    }
+
+    // Answered from the reference data cache and the eligibility index; the reservation still checks the
+    // concert's status in the database
+    private SaleResult checkConcert(ReferenceDataCache.ConcertInfo concert, int customerCode,
+                                    String ticketType) throws SQLException {
+        if (concert == null || !concert.onSale()) {
+            return SaleResult.rejected(Status.CONCERT_NOT_FOUND, "Concert not found or not approved.");
+        }
+        if (concert.price(ticketType) == null) {
+            return SaleResult.rejected(Status.INVALID_TICKET_TYPE, "No price found for this ticket type.");
+        }
+        switch (eligibility.check(customerCode, EligibilityIndex.minimumAge(concert.entryRestrictions()))) {
+            case UNKNOWN_CUSTOMER:
+                return SaleResult.rejected(Status.FAILED, "Customer not found.");
+            case BANNED:
+                return SaleResult.rejected(Status.BANNED, "Customer is banned.");
+            case UNDERAGE:
+                return SaleResult.rejected(Status.AGE_RESTRICTED, "Customer does not meet the entry restrictions.");
+            default:
+                return null;
+        }
+    }
+
+    // Rejects seats that do not exist, belong to another tier or are already sold or held without touching
+    // the database
+    private SaleResult checkSeats(SeatMap map, String ticketType, List<String> seatNumbers) {
+        if (seatNumbers.isEmpty()) {
+            return SaleResult.rejected(Status.INVALID_SEAT, "No seats selected.");
+        }
+        if (new HashSet<>(seatNumbers).size() != seatNumbers.size()) {
+            return SaleResult.rejected(Status.INVALID_SEAT, "The same seat was selected more than once.");
+        }
+
+        SeatLayout layout = map.layout();
+        if (layout.capacity() == 0) {
+            return null; // No tiers on sale; the sale itself reports it
+        }
+        for (String seatNumber : seatNumbers) {
+            int ordinal = layout.ordinalOf(seatNumber);
+            if (ordinal < 0) {
+                return SaleResult.rejected(Status.INVALID_SEAT, "Seat " + seatNumber + " does not exist for this concert.");
+            }
+            if (!layout.sectionOf(ordinal).ticketType().equalsIgnoreCase(ticketType)) {
+                return SaleResult.rejected(Status.INVALID_SEAT, "Seat " + seatNumber + " is not in the " + ticketType + " section.");
+            }
+            if (!map.isFree(seatNumber)) {
+                return SaleResult.rejected(Status.SEAT_TAKEN, "Seat " + seatNumber
+                        + (map.isHeld(seatNumber) ? " is on hold for another buyer." : " is already taken."));
+            }
+        }
+        return null;
+    }
+
+    // All input is collected by the caller, so nothing waits on a user while locks are held. The hot
+    // Concerts row is locked exclusively by the conditional decrement, which enforces sale status and
+    // availability, as the transaction's first statement, and is held until commit. Bans and age limits were
+    // checked from the eligibility index, and the tier price read from the reference data cache, before the
+    // transaction began.
+    private SaleResult sellTickets(Connection connection, SaleRequest request, BigDecimal ticketPrice) throws SQLException {
+        int quantity = request.seatNumbers().size();
+
+        // Reserve inventory for the whole order in one statement, only if the concert is on sale and has
+        // enough seats left. It runs first: the Tickets batch's foreign key checks share-lock the Concerts
+        // row, and two buyers each holding that share lock while waiting to upgrade it would deadlock. A
+        // sold-out concert is also turned away before anything is written.
+        String reserveTicketsQuery = """
+        UPDATE Concerts
+        SET tickets_available = tickets_available - ?
+        WHERE concert_code = ?
+          AND status = 'approved'
+          AND tickets_available >= ?;
+        """;
+        try (PreparedStatement ps = connection.prepareStatement(reserveTicketsQuery)) {
+            ps.setInt(1, quantity);
+            ps.setInt(2, request.concertCode());
+            ps.setInt(3, quantity);
+            if (ps.executeUpdate() == 0) {
+                return diagnoseRejectedSale(connection, request);
+            }
+        }
+
+        // One Transactions row for the whole order
+        String insertTransactionQuery = """
+        INSERT INTO Transactions (customer_code, transaction_type, transaction_date, total_amount, payment_method)
+        VALUES (?, 'buy', CURRENT_TIMESTAMP, ?, ?);
+        """;
+        int transactionCode;
+        try (PreparedStatement ps = connection.prepareStatement(insertTransactionQuery, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, request.customerCode());
+            ps.setBigDecimal(2, ticketPrice.multiply(BigDecimal.valueOf(quantity)));
+            ps.setString(3, request.paymentMethod());
+            ps.executeUpdate();
+            transactionCode = generatedKey(ps);
+        }
+
+        // Claim every seat in one batch; UNIQUE (concert_code, active_seat) rejects a seat that is already sold
+        String insertTicketQuery = """
+        INSERT INTO Tickets (concert_code, transaction_code, ticket_type, seat_number, ticket_price)
+        VALUES (?, ?, ?, ?, ?);
+        """;
+        List<Integer> ticketCodes = new ArrayList<>(quantity);
+        try (PreparedStatement ps = connection.prepareStatement(insertTicketQuery, Statement.RETURN_GENERATED_KEYS)) {
+            for (String seatNumber : request.seatNumbers()) {
+                ps.setInt(1, request.concertCode());
+                ps.setInt(2, transactionCode);
+                ps.setString(3, request.ticketType());
+                ps.setString(4, seatNumber);
+                ps.setBigDecimal(5, ticketPrice);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ticketCodes.add(keys.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            if (isDuplicateKey(e)) {
+                return SaleResult.rejected(Status.SEAT_TAKEN, quantity == 1
+                        ? "Seat is already taken." : "One or more of the selected seats is already taken.");
+            }
+            throw e;
+        }
+        OwnershipLedger.recordTransaction(connection, transactionCode, ticketCodes);
+        SalesRollup.recordTransaction(connection, transactionCode, ticketCodes.size());
+
+        String message = quantity == 1
+                ? "Ticket sale completed successfully."
+                : quantity + " tickets sold (seats " + String.join(", ", request.seatNumbers()) + ").";
+        return new SaleResult(Status.SUCCESS, message, transactionCode, ticketCodes, request.seatNumbers());
+    }
+
+    // Only runs when the reservation matched no row, to tell the buyer why
+    private SaleResult diagnoseRejectedSale(Connection connection, SaleRequest request) throws SQLException {
+        String diagnoseQuery = "SELECT status FROM Concerts WHERE concert_code = ?";
+        try (PreparedStatement ps = connection.prepareStatement(diagnoseQuery)) {
+            ps.setInt(1, request.concertCode());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || !"approved".equals(rs.getString("status"))) {
+                    return SaleResult.rejected(Status.CONCERT_NOT_FOUND, "Concert not found or not approved.");
+                }
+                return SaleResult.rejected(Status.SOLD_OUT, "Not enough tickets available for this concert.");
+            }
+        }
+    }
+
+    public RefundResult refundTickets(RefundRequest request) {
+        try {
+            if (eligibility.isBanned(request.customerCode())) {
+                return RefundResult.rejected(Status.BANNED, "Customer is banned. Refund cannot be processed.");
+            }
+        } catch (SQLException e) {
+            return RefundResult.rejected(Status.FAILED, "Error processing refund: " + e.getMessage());
+        }
+
+        List<SeatRef> releasedSeats = new ArrayList<>();
+        Set<Integer> reportYears = new HashSet<>();
+        RefundResult result = inTransaction(connection -> {
+                    releasedSeats.clear(); // Left from an attempt rolled back as a deadlock victim
+                    return refundTickets(connection, request, releasedSeats, reportYears);
+                },
+                message -> RefundResult.rejected(Status.FAILED, "Error processing refund: " + message));
+        if (result.succeeded()) {
+            for (SeatRef seat : releasedSeats) {
+                seatMaps.markReleased(seat.concertCode(), seat.seatNumber());
+            }
+            invalidateReports(reportYears);
+        }
+        return result;
+    }
+
+    private RefundResult refundTickets(Connection connection, RefundRequest request, List<SeatRef> releasedSeats,
+                                       Set<Integer> reportYears) throws SQLException {
+        // The eligibility index already turned away known bans; a refund pays out, so a ban the index has
+        // not picked up yet is checked for in Bans itself
+        if (eligibility.isBanned(connection, request.customerCode())) {
+            return RefundResult.rejected(Status.BANNED, "Customer is banned. Refund cannot be processed.");
+        }
+        int[] requested = Arrays.stream(request.ticketCodes()).distinct().toArray();
+        if (requested.length == 0) {
+            return RefundResult.rejected(Status.TICKET_NOT_OWNED, "No tickets to refund.");
+        }
+
+        // Step 1: Validate every ticket in one query, locking them against a concurrent refund
+        String validateTicketsQuery = """
+        SELECT
+            t.ticket_code, t.ticket_price, t.concert_code, t.seat_number,
+            tr.transaction_code, tr.customer_code, tr.transaction_type, YEAR(tr.transaction_date) AS purchase_year,
+            EXISTS (SELECT 1 FROM Refunds r WHERE r.ticket_code = t.ticket_code) AS refunded,
+            c.status AS concert_status
+        FROM Tickets t
+        JOIN Transactions tr ON t.transaction_code = tr.transaction_code
+        JOIN Concerts c ON c.concert_code = t.concert_code
+        WHERE t.ticket_code IN (%s)
+        FOR UPDATE;
+        """.formatted(MyJDBC.placeholders(requested.length));
+        Map<Integer, RefundableTicket> found = new HashMap<>();
+        Map<Integer, String> rejections = new HashMap<>();
+        try (PreparedStatement validateStmt = connection.prepareStatement(validateTicketsQuery)) {
+            for (int i = 0; i < requested.length; i++) {
+                validateStmt.setInt(i + 1, requested[i]);
+            }
+            try (ResultSet rs = validateStmt.executeQuery()) {
+                while (rs.next()) {
+                    int ticketCode = rs.getInt("ticket_code");
+                    if (rs.getInt("customer_code") != request.customerCode() || !"buy".equals(rs.getString("transaction_type"))) {
+                        rejections.put(ticketCode, "not owned by this customer");
+                    } else if (rs.getBoolean("refunded")) {
+                        rejections.put(ticketCode, "already refunded");
+                    } else if ("cancelled".equals(rs.getString("concert_status"))) {
+                        // The cancellation refunds every ticket of the concert itself
+                        rejections.put(ticketCode, "concert cancelled; refunded by the cancellation");
+                    } else {
+                        found.put(ticketCode, new RefundableTicket(ticketCode, rs.getInt("transaction_code"),
+                                rs.getInt("concert_code"), rs.getString("seat_number"), rs.getBigDecimal("ticket_price")));
+                        // Customer engagement for the purchase year stops counting a refunded ticket
+                        reportYears.add(rs.getInt("purchase_year"));
+                    }
+                }
+            }
+        }
+
+        List<RefundableTicket> refundable = new ArrayList<>();
+        List<RefundFailure> failures = new ArrayList<>();
+        for (int ticketCode : requested) {
+            RefundableTicket ticket = found.get(ticketCode);
+            if (ticket != null) {
+                refundable.add(ticket);
+            } else {
+                failures.add(new RefundFailure(ticketCode, rejections.getOrDefault(ticketCode, "ticket not found")));
+            }
+        }
+        if (refundable.isEmpty()) {
+            return new RefundResult(Status.TICKET_NOT_OWNED, "None of the tickets can be refunded.",
+                    0, 0.0, List.of(), failures);
+        }
+
+        // Step 2: Insert every Refunds row in one batch
+        String insertRefundQuery = "INSERT INTO Refunds (transaction_code, ticket_code) VALUES (?, ?)";
+        try (PreparedStatement refundStmt = connection.prepareStatement(insertRefundQuery)) {
+            for (RefundableTicket ticket : refundable) {
+                refundStmt.setInt(1, ticket.transactionCode()); // Original transaction code
+                refundStmt.setInt(2, ticket.ticketCode());
+                refundStmt.addBatch();
+            }
+            refundStmt.executeBatch();
+        }
+
+        // Step 3: Free the seats so they can be sold again. The unique seat key is on active_seat, which this
+        // clears; seat_number still records which seat the refunded ticket was for.
+        String releaseSeatsQuery = "UPDATE Tickets SET seat_released = TRUE WHERE ticket_code IN (%s)"
+                .formatted(MyJDBC.placeholders(refundable.size()));
+        try (PreparedStatement releaseStmt = connection.prepareStatement(releaseSeatsQuery)) {
+            for (int i = 0; i < refundable.size(); i++) {
+                releaseStmt.setInt(i + 1, refundable.get(i).ticketCode());
+            }
+            releaseStmt.executeUpdate();
+        }
+
+        // Step 4: Return inventory with one update per concert
+        Map<Integer, Integer> returnedPerConcert = new TreeMap<>(); // Sorted so concurrent refunds lock concerts in the same order
+        BigDecimal totalRefundFee = BigDecimal.ZERO;
+        List<Integer> refundedTickets = new ArrayList<>();
+        for (RefundableTicket ticket : refundable) {
+            returnedPerConcert.merge(ticket.concertCode(), 1, Integer::sum);
+            totalRefundFee = totalRefundFee.add(ticket.price().multiply(BigDecimal.valueOf(REFUND_FEE_PERCENTAGE)));
+            refundedTickets.add(ticket.ticketCode());
+            if (ticket.seatNumber() != null) {
+                releasedSeats.add(new SeatRef(ticket.concertCode(), ticket.seatNumber()));
+            }
+        }
+        String returnInventoryQuery = "UPDATE Concerts SET tickets_available = tickets_available + ? WHERE concert_code = ?";
+        try (PreparedStatement inventoryStmt = connection.prepareStatement(returnInventoryQuery)) {
+            for (Map.Entry<Integer, Integer> entry : returnedPerConcert.entrySet()) {
+                inventoryStmt.setInt(1, entry.getValue());
+                inventoryStmt.setInt(2, entry.getKey());
+                inventoryStmt.addBatch();
+            }
+            inventoryStmt.executeBatch();
+        }
+
+        // Step 5: Record the refund transaction in the Transactions table
+        String recordTransactionQuery = """
+        INSERT INTO Transactions (customer_code, transaction_type, transaction_date, total_amount, payment_method)
+        VALUES (?, 'refund', CURRENT_TIMESTAMP, ?, ?);
+        """;
+        int transactionCode;
+        try (PreparedStatement recordStmt = connection.prepareStatement(recordTransactionQuery, Statement.RETURN_GENERATED_KEYS)) {
+            recordStmt.setInt(1, request.customerCode());
+            recordStmt.setBigDecimal(2, totalRefundFee); // Only the refund fee
+            recordStmt.setString(3, request.paymentMethod());
+            recordStmt.executeUpdate();
+            transactionCode = generatedKey(recordStmt);
+        }
+        OwnershipLedger.recordTransaction(connection, transactionCode, refundedTickets);
+        SalesRollup.recordTransaction(connection, transactionCode, refundedTickets.size());
+
+        String message = String.format("Refunded %d ticket(s). Total refund fee charged: ₱%.2f.",
+                refundedTickets.size(), totalRefundFee);
+        if (!failures.isEmpty()) {
+            message += " " + failures.size() + " ticket(s) could not be refunded.";
+        }
+        return new RefundResult(Status.SUCCESS, message, transactionCode, totalRefundFee.doubleValue(),
+                refundedTickets, failures);
+    }
+
+    public CancellationResult cancelConcert(int concertCode) {
+        return cancelConcert(concertCode, (refundsRecorded, ticketsProcessed, totalTickets) -> {
+        });
+    }
+
+    // Cancels in three phases: stop sales and free the venue date, refund tickets in committed chunks
+    // recorded in ConcertCancellations, then mark the run complete. A run that stops part-way resumes
+    // from its checkpoint the next time the same concert is cancelled.
+    public CancellationResult cancelConcert(int concertCode, CancellationProgress progress) {
+        CancellationResult started = inTransaction(connection -> startCancellation(connection, concertCode),
+                message -> CancellationResult.rejected(Status.FAILED, "Error cancelling concert: " + message));
+        if (!started.succeeded()) {
+            return started;
+        }
+        seatMaps.invalidate(concertCode); // Nothing left to sell
+        referenceData.invalidateConcert(concertCode);
+        invalidateReports(Set.of());
+
+        int refundsRecorded = 0;
+        while (true) {
+            CancellationChunk chunk = inTransaction(connection -> refundNextChunk(connection, concertCode),
+                    message -> new CancellationChunk(Status.FAILED, message, 0, 0, 0, false));
+            if (!chunk.succeeded()) {
+                return new CancellationResult(Status.FAILED, "Cancellation stopped after " + refundsRecorded
+                        + " refund(s) and can be resumed by cancelling again: " + chunk.message(), refundsRecorded);
+            }
+            if (chunk.done()) {
+                break;
+            }
+            refundsRecorded = chunk.refundsRecorded();
+            progress.onProgress(chunk.refundsRecorded(), chunk.ticketsProcessed(), chunk.totalTickets());
+        }
+
+        CancellationResult finished = inTransaction(connection -> finishCancellation(connection, concertCode),
+                message -> CancellationResult.rejected(Status.FAILED, "Error completing cancellation: " + message));
+        if (!finished.succeeded()) {
+            return finished;
+        }
+        invalidateReports(Set.of());
+        String message = finished.refundsRecorded() == 0
+                ? "Concert cancelled and venue set to available. No tickets found for the specified concert."
+                : "Concert cancelled, " + finished.refundsRecorded() + " refund transactions recorded, and venue set to available.";
+        return new CancellationResult(Status.SUCCESS, message, finished.refundsRecorded());
+    }
+
+    private CancellationResult startCancellation(Connection connection, int concertCode) throws SQLException {
+        String checkpointQuery = "SELECT status FROM ConcertCancellations WHERE concert_code = ? FOR UPDATE";
+        try (PreparedStatement ps = connection.prepareStatement(checkpointQuery)) {
+            ps.setInt(1, concertCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return "completed".equals(rs.getString("status"))
+                            ? CancellationResult.rejected(Status.ALREADY_CANCELLED, "Concert has already been cancelled.")
+                            : new CancellationResult(Status.SUCCESS, "Resuming cancellation.", 0);
+                }
+            }
+        }
+
+        String validateConcertQuery = "SELECT status FROM Concerts WHERE concert_code = ? FOR UPDATE";
+        try (PreparedStatement ps = connection.prepareStatement(validateConcertQuery)) {
+            ps.setInt(1, concertCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return CancellationResult.rejected(Status.CONCERT_NOT_FOUND, "No concert found with the provided Concert Code.");
+                }
+                if ("cancelled".equals(rs.getString("status"))) {
+                    return CancellationResult.rejected(Status.ALREADY_CANCELLED, "Concert has already been cancelled.");
+                }
+            }
+        }
+
+        // Stop sales before any refund is written
+        String updateConcertQuery = "UPDATE Concerts SET status = 'cancelled' WHERE concert_code = ?";
+        try (PreparedStatement ps = connection.prepareStatement(updateConcertQuery)) {
+            ps.setInt(1, concertCode);
+            ps.executeUpdate();
+        }
+
+        // Free only the concert's own date at the venue
+        String updateVenueAvailabilityQuery = """
+            UPDATE AvailableVenues av
+            JOIN Concerts c ON c.venue_code = av.venue_code AND c.concert_date = av.concert_date
+            SET av.availability = 'available'
+            WHERE c.concert_code = ?;
+        """;
+        try (PreparedStatement ps = connection.prepareStatement(updateVenueAvailabilityQuery)) {
+            ps.setInt(1, concertCode);
+            ps.executeUpdate();
+        }
+
+        String insertCheckpointQuery = """
+            INSERT INTO ConcertCancellations (concert_code, total_tickets, status)
+            SELECT ?, COUNT(*), 'in_progress'
+            FROM Tickets
+            WHERE concert_code = ?;
+        """;
+        try (PreparedStatement ps = connection.prepareStatement(insertCheckpointQuery)) {
+            ps.setInt(1, concertCode);
+            ps.setInt(2, concertCode);
+            ps.executeUpdate();
+        }
+        return new CancellationResult(Status.SUCCESS, "Cancellation started.", 0);
+    }
+
+    // Refunds the next CANCELLATION_CHUNK_SIZE tickets after the checkpoint with one INSERT ... SELECT
+    private CancellationChunk refundNextChunk(Connection connection, int concertCode) throws SQLException {
+        // Locking the checkpoint row keeps two operators from refunding the same chunk
+        String checkpointQuery = """
+            SELECT last_ticket_code, refunds_recorded, tickets_processed, total_tickets
+            FROM ConcertCancellations
+            WHERE concert_code = ? AND status = 'in_progress'
+            FOR UPDATE;
+        """;
+        int lastTicketCode;
+        int refundsRecorded;
+        int ticketsProcessed;
+        int totalTickets;
+        try (PreparedStatement ps = connection.prepareStatement(checkpointQuery)) {
+            ps.setInt(1, concertCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return new CancellationChunk(Status.SUCCESS, "No cancellation in progress.", 0, 0, 0, true);
+                }
+                lastTicketCode = rs.getInt("last_ticket_code");
+                refundsRecorded = rs.getInt("refunds_recorded");
+                ticketsProcessed = rs.getInt("tickets_processed");
+                totalTickets = rs.getInt("total_tickets");
+            }
+        }
+
+        String chunkBoundsQuery = """
+            SELECT COUNT(*) AS tickets, MAX(ticket_code) AS upper_ticket_code
+            FROM (
+                SELECT ticket_code
+                FROM Tickets
+                WHERE concert_code = ? AND ticket_code > ?
+                ORDER BY ticket_code
+                LIMIT ?
+            ) chunk;
+        """;
+        int tickets;
+        int upperTicketCode;
+        try (PreparedStatement ps = connection.prepareStatement(chunkBoundsQuery)) {
+            ps.setInt(1, concertCode);
+            ps.setInt(2, lastTicketCode);
+            ps.setInt(3, CANCELLATION_CHUNK_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                tickets = rs.getInt("tickets");
+                upperTicketCode = rs.getInt("upper_ticket_code");
+            }
+        }
+        if (tickets == 0) {
+            return new CancellationChunk(Status.SUCCESS, "All tickets processed.",
+                    refundsRecorded, ticketsProcessed, totalTickets, true);
+        }
+
+        // Tickets the customer already refunded are skipped. The share locks keep a concurrent customer refund
+        // from changing the set between this total (for MonthlySales) and the insert below.
+        String refundFilter = """
+            FROM Tickets
+            JOIN Transactions ON Tickets.transaction_code = Transactions.transaction_code
+            WHERE Tickets.concert_code = ?
+              AND Tickets.ticket_code > ? AND Tickets.ticket_code <= ?
+              AND NOT EXISTS (SELECT 1 FROM Refunds WHERE Refunds.ticket_code = Tickets.ticket_code)
+        """;
+        String refundTotalsQuery = """
+            SELECT CURRENT_TIMESTAMP AS refund_date, SUM(ROUND(Tickets.ticket_price * (1 - ?), 2)) AS refund_total
+            %s
+            LOCK IN SHARE MODE;
+        """.formatted(refundFilter);
+        Timestamp refundDate;
+        BigDecimal refundTotal;
+        try (PreparedStatement ps = connection.prepareStatement(refundTotalsQuery)) {
+            ps.setBigDecimal(1, BigDecimal.valueOf(REFUND_FEE_PERCENTAGE));
+            ps.setInt(2, concertCode);
+            ps.setInt(3, lastTicketCode);
+            ps.setInt(4, upperTicketCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                refundDate = rs.getTimestamp("refund_date");
+                refundTotal = rs.getBigDecimal("refund_total");
+            }
+        }
+
+        String recordRefundsQuery = """
+            INSERT INTO Transactions (customer_code, transaction_type, transaction_date, total_amount)
+            SELECT Transactions.customer_code, 'refund', ?, Tickets.ticket_price * (1 - ?)
+            %s;
+        """.formatted(refundFilter);
+        int refunds;
+        try (PreparedStatement ps = connection.prepareStatement(recordRefundsQuery)) {
+            ps.setTimestamp(1, refundDate);
+            ps.setBigDecimal(2, BigDecimal.valueOf(REFUND_FEE_PERCENTAGE));
+            ps.setInt(3, concertCode);
+            ps.setInt(4, lastTicketCode);
+            ps.setInt(5, upperTicketCode);
+            refunds = ps.executeUpdate();
+        }
+
+        // The per-ticket refund transactions above are not tied back to their tickets, so the ledger entry
+        // records the holder and the refund time without a transaction code
+        String recordOwnershipQuery = """
+            INSERT INTO TicketOwnership (ticket_code, seq, customer_code, transaction_code, event_type, event_time)
+            SELECT Tickets.ticket_code, %s, Transactions.customer_code, NULL, 'cancel', ?
+            %s;
+        """.formatted(OwnershipLedger.NEXT_SEQ, refundFilter);
+        try (PreparedStatement ps = connection.prepareStatement(recordOwnershipQuery)) {
+            ps.setTimestamp(1, refundDate);
+            ps.setInt(2, concertCode);
+            ps.setInt(3, lastTicketCode);
+            ps.setInt(4, upperTicketCode);
+            ps.executeUpdate();
+        }
+
+        // Marks the chunk's tickets refunded, as a customer refund does, so none can be refunded a second time.
+        // Runs after the inserts above, since their filter skips tickets that have a Refunds row.
+        String markRefundedQuery = """
+            INSERT INTO Refunds (transaction_code, ticket_code)
+            SELECT Tickets.transaction_code, Tickets.ticket_code
+            %s;
+        """.formatted(refundFilter);
+        try (PreparedStatement ps = connection.prepareStatement(markRefundedQuery)) {
+            ps.setInt(1, concertCode);
+            ps.setInt(2, lastTicketCode);
+            ps.setInt(3, upperTicketCode);
+            ps.executeUpdate();
+        }
+
+        String advanceCheckpointQuery = """
+            UPDATE ConcertCancellations
+            SET last_ticket_code = ?, refunds_recorded = refunds_recorded + ?, tickets_processed = tickets_processed + ?
+            WHERE concert_code = ?;
+        """;
+        try (PreparedStatement ps = connection.prepareStatement(advanceCheckpointQuery)) {
+            ps.setInt(1, upperTicketCode);
+            ps.setInt(2, refunds);
+            ps.setInt(3, tickets);
+            ps.setInt(4, concertCode);
+            ps.executeUpdate();
+        }
+        SalesRollup.recordTotals(connection, refundDate, "refund", refundTotal, refunds, refunds); // One ticket each
+        return new CancellationChunk(Status.SUCCESS, "Chunk refunded.", refundsRecorded + refunds,
+                ticketsProcessed + tickets, totalTickets, false);
+    }
+
+    private CancellationResult finishCancellation(Connection connection, int concertCode) throws SQLException {
+        String completeQuery = """
+            UPDATE ConcertCancellations
+            SET status = 'completed', completed_at = CURRENT_TIMESTAMP
+            WHERE concert_code = ?;
+        """;
+        try (PreparedStatement ps = connection.prepareStatement(completeQuery)) {
+            ps.setInt(1, concertCode);
+            ps.executeUpdate();
+        }
+
+        String totalsQuery = "SELECT refunds_recorded FROM ConcertCancellations WHERE concert_code = ?";
+        try (PreparedStatement ps = connection.prepareStatement(totalsQuery)) {
+            ps.setInt(1, concertCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                int refundsRecorded = rs.next() ? rs.getInt("refunds_recorded") : 0;
+                return new CancellationResult(Status.SUCCESS, "Cancellation completed.", refundsRecorded);
+            }
+        }
+    }
+
+    public TransferResult transferTickets(TransferRequest request) {
+        Set<Integer> reportYears = new HashSet<>();
+        TransferResult result = inTransaction(connection -> transferTickets(connection, request, reportYears),
+                message -> TransferResult.rejected(Status.FAILED, "Error transferring tickets: " + message));
+        if (result.succeeded()) {
+            invalidateReports(reportYears);
+        }
+        return result;
+    }
+
+    private TransferResult transferTickets(Connection connection, TransferRequest request,
+                                           Set<Integer> reportYears) throws SQLException {
+        int[] requested = Arrays.stream(request.ticketCodes()).distinct().toArray();
+        if (requested.length == 0) {
+            return TransferResult.rejected(Status.TICKET_NOT_OWNED, "No tickets to transfer.");
+        }
+
+        // Step 1: Verify ownership of every ticket in one query, locking them for the rest of the transfer
+        String checkOwnershipQuery = """
+            SELECT
+                T.ticket_code, Tr.customer_code, Tr.transaction_type, YEAR(Tr.transaction_date) AS purchase_year,
+                (SELECT YEAR(C.concert_date) FROM Concerts C WHERE C.concert_code = T.concert_code) AS concert_year,
+                EXISTS (SELECT 1 FROM Refunds R WHERE R.ticket_code = T.ticket_code) AS refunded
+            FROM Tickets T
+            JOIN Transactions Tr ON T.transaction_code = Tr.transaction_code
+            WHERE T.ticket_code IN (%s)
+            FOR UPDATE;
+        """.formatted(MyJDBC.placeholders(requested.length));
+        Map<Integer, String> rejections = new HashMap<>();
+        Set<Integer> owned = new HashSet<>();
+        try (PreparedStatement checkStmt = connection.prepareStatement(checkOwnershipQuery)) {
+            for (int i = 0; i < requested.length; i++) {
+                checkStmt.setInt(i + 1, requested[i]);
+            }
+            try (ResultSet rs = checkStmt.executeQuery()) {
+                while (rs.next()) {
+                    int ticketCode = rs.getInt("ticket_code");
+                    if (rs.getInt("customer_code") != request.fromCustomerCode()) {
+                        rejections.put(ticketCode, "not found for customer " + request.fromCustomerCode());
+                    } else if ("transfer".equalsIgnoreCase(rs.getString("transaction_type"))) {
+                        rejections.put(ticketCode, "has already been transferred and cannot be transferred again");
+                    } else if (rs.getBoolean("refunded")) {
+                        rejections.put(ticketCode, "has been refunded");
+                    } else {
+                        owned.add(ticketCode);
+                        // The ticket leaves its 'buy' transaction, which changes that year's and the concert year's reports
+                        reportYears.add(rs.getInt("purchase_year"));
+                        reportYears.add(rs.getInt("concert_year"));
+                    }
+                }
+            }
+        }
+
+        List<TransferFailure> failures = new ArrayList<>();
+        List<Integer> transferredTickets = new ArrayList<>();
+        for (int ticketCode : requested) {
+            if (owned.contains(ticketCode)) {
+                transferredTickets.add(ticketCode);
+            } else {
+                failures.add(new TransferFailure(ticketCode,
+                        rejections.getOrDefault(ticketCode, "not found for customer " + request.fromCustomerCode())));
+            }
+        }
+        if (!failures.isEmpty()) {
+            Status status = failures.stream().allMatch(failure -> failure.reason().startsWith("has already been transferred"))
+                    ? Status.ALREADY_TRANSFERRED : Status.TICKET_NOT_OWNED;
+            return new TransferResult(status, failures.size() + " ticket(s) cannot be transferred. No tickets were moved.",
+                    0, List.of(), failures);
+        }
+
+        // Step 2: One transfer transaction for the whole set, charging the fee per ticket
+        String insertTransactionQuery = """
+            INSERT INTO Transactions (customer_code, transaction_type, transaction_date, total_amount, payment_method)
+            VALUES (?, 'transfer', CURRENT_TIMESTAMP, ?, ?);
+        """;
+        int newTransactionCode;
+        try (PreparedStatement transactionStmt = connection.prepareStatement(insertTransactionQuery, Statement.RETURN_GENERATED_KEYS)) {
+            transactionStmt.setInt(1, request.toCustomerCode());
+            transactionStmt.setBigDecimal(2, BigDecimal.valueOf(TRANSFER_FEE).multiply(BigDecimal.valueOf(requested.length)));
+            transactionStmt.setString(3, request.paymentMethod());
+            transactionStmt.executeUpdate();
+            newTransactionCode = generatedKey(transactionStmt);
+        }
+
+        // Step 3: Re-point every ticket at the new transaction in one statement
+        String updateTicketsQuery = "UPDATE Tickets SET transaction_code = ? WHERE ticket_code IN (%s)"
+                .formatted(MyJDBC.placeholders(requested.length));
+        try (PreparedStatement updateTicketStmt = connection.prepareStatement(updateTicketsQuery)) {
+            updateTicketStmt.setInt(1, newTransactionCode);
+            for (int i = 0; i < requested.length; i++) {
+                updateTicketStmt.setInt(i + 2, requested[i]);
+            }
+            if (updateTicketStmt.executeUpdate() != requested.length) {
+                return TransferResult.rejected(Status.FAILED, "Failed to transfer all tickets.");
+            }
+        }
+        OwnershipLedger.recordTransaction(connection, newTransactionCode, transferredTickets);
+        SalesRollup.recordTransaction(connection, newTransactionCode, transferredTickets.size());
+
+        return new TransferResult(Status.SUCCESS, "Ticket transfer successful!", newTransactionCode,
+                transferredTickets, List.of());
+    }
+
+    // Open periods change with every write; closed years only when a write reaches back into them
+    private void invalidateReports(Set<Integer> closedYears) {
+        reportCache.invalidateOpenPeriods();
+        for (int year : closedYears) {
+            reportCache.invalidateYear(year);
+        }
+    }
+
+    public LockErrors lockErrors() {
+        return new LockErrors(deadlocks.get(), lockWaitTimeouts.get());
+    }
+
+    private void countLockError(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == MYSQL_DEADLOCK) {
+                deadlocks.incrementAndGet();
+                return;
+            }
+            if (current.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT) {
+                lockWaitTimeouts.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private boolean isDeadlock(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == MYSQL_DEADLOCK
+                    || current.getCause() instanceof SQLException cause && cause.getErrorCode() == MYSQL_DEADLOCK) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isDuplicateKey(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == MYSQL_DUPLICATE_KEY
+                    || current.getCause() instanceof SQLException cause && cause.getErrorCode() == MYSQL_DUPLICATE_KEY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int generatedKey(Statement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("No generated key returned.");
+            }
+            return keys.getInt(1);
+        }
+    }
+
+    // Runs the work in one database transaction, committing only when it reports success. A transaction
+    // MySQL rolled back as a deadlock victim is run again, up to DEADLOCK_RETRIES times, so the work must
+    // not depend on state left over from an earlier attempt.
+    private <T extends Outcome> T inTransaction(TransactionWork<T> work, FailureHandler<T> failure) {
+        for (int attempt = 0; ; attempt++) {
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+                try {
+                    T result = work.execute(connection);
+                    if (result.succeeded()) {
+                        connection.commit();
+                    } else {
+                        connection.rollback();
+                    }
+                    return result;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                countLockError(e);
+                if (attempt >= DEADLOCK_RETRIES || !isDeadlock(e)) {
+                    return failure.onFailure(e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -51,6 +51,8 @@ CREATE TABLE IF NOT EXISTS Concerts (
     tickets_available INT,
     seating_capacity INT,
     status ENUM('approved', 'cancelled', 'concluded'),
+    -- Concert Analysis: range scan on concert_date
+    INDEX idx_concerts_date (concert_date),
     FOREIGN KEY (artist_code) REFERENCES Artists(artist_code) ON DELETE CASCADE,
     FOREIGN KEY (venue_code) REFERENCES Venues(venue_code) ON DELETE CASCADE
 );
@@ -86,6 +88,10 @@ CREATE TABLE IF NOT EXISTS Transactions (
     transaction_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
     total_amount DECIMAL(10, 2),
     payment_method ENUM('cash', 'bank_transfer', 'card'),
+    -- Annual Sales / Top Sales: covering range scan of one transaction type over a date range
+    INDEX idx_transactions_type_date (transaction_type, transaction_date, total_amount),
+    -- Customer Engagement: covering range scan over a date range, all transaction types
+    INDEX idx_transactions_date_customer (transaction_date, customer_code, transaction_type, total_amount),
     FOREIGN KEY (customer_code) REFERENCES Customers(customer_code) ON DELETE CASCADE
 );
 
@@ -104,9 +110,19 @@ CREATE TABLE IF NOT EXISTS Tickets (
     ticket_type VARCHAR(50),
     seat_number VARCHAR(10),
     ticket_price DECIMAL(10, 2),
+    -- Set when the ticket is refunded; seat_number keeps the seat for the ticket's history
+    seat_released BOOLEAN NOT NULL DEFAULT FALSE,
+    -- The seat while the ticket still holds it, so a refunded seat can be sold again under the unique key
+    active_seat VARCHAR(10) GENERATED ALWAYS AS (IF(seat_released, NULL, seat_number)) STORED,
+    -- Concert Analysis: Concerts -> Tickets -> Transactions without touching ticket rows
+    INDEX idx_tickets_concert_transaction (concert_code, transaction_code),
+    -- Top Sales / Customer Engagement: Transactions -> Tickets with the concert at hand
+    INDEX idx_tickets_transaction_concert (transaction_code, concert_code),
+    -- Concert record / cancellation: one concert's tickets in ticket_code order, read a page at a time
+    INDEX idx_tickets_concert_ticket (concert_code, ticket_code),
     FOREIGN KEY (concert_code) REFERENCES Concerts(concert_code) ON DELETE CASCADE,
     FOREIGN KEY (transaction_code) REFERENCES Transactions(transaction_code) ON DELETE CASCADE,
-    UNIQUE (concert_code, seat_number)
+    UNIQUE (concert_code, active_seat)
 );
 
 CREATE TABLE IF NOT EXISTS Refunds (
@@ -117,6 +133,67 @@ CREATE TABLE IF NOT EXISTS Refunds (
     FOREIGN KEY (ticket_code) REFERENCES Tickets(ticket_code) ON DELETE CASCADE
 );
 
+-- Append-only ownership history per ticket: seq 1 is the purchase, the highest seq the current state.
+-- Sales, transfers, refunds and cancellations append to it in the same database transaction. Cancellation
+-- entries carry no transaction_code because their refund transactions are not linked to tickets.
+CREATE TABLE IF NOT EXISTS TicketOwnership (
+    ticket_code INT NOT NULL,
+    seq SMALLINT NOT NULL,
+    customer_code INT NOT NULL,
+    transaction_code INT NULL,
+    event_type ENUM('buy', 'refund', 'transfer', 'cancel') NOT NULL,
+    event_time DATETIME NOT NULL,
+    PRIMARY KEY (ticket_code, seq),
+    -- Customer record: every ticket a customer has held in (ticket_code, seq) order, read a page at a time
+    INDEX idx_ownership_customer_ticket (customer_code, ticket_code, seq),
+    FOREIGN KEY (ticket_code) REFERENCES Tickets(ticket_code) ON DELETE CASCADE,
+    FOREIGN KEY (customer_code) REFERENCES Customers(customer_code) ON DELETE CASCADE,
+    FOREIGN KEY (transaction_code) REFERENCES Transactions(transaction_code) ON DELETE CASCADE
+);
+
+-- Checkpoint of a chunked concert cancellation; an 'in_progress' run resumes after last_ticket_code
+CREATE TABLE IF NOT EXISTS ConcertCancellations (
+    concert_code INT PRIMARY KEY,
+    last_ticket_code INT NOT NULL DEFAULT 0,
+    tickets_processed INT NOT NULL DEFAULT 0,
+    refunds_recorded INT NOT NULL DEFAULT 0,
+    total_tickets INT NOT NULL,
+    status ENUM('in_progress', 'completed') NOT NULL,
+    started_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at DATETIME NULL,
+    FOREIGN KEY (concert_code) REFERENCES Concerts(concert_code) ON DELETE CASCADE
+);
+
+-- Optional seating plan per ticket tier; seats are labelled 'section-row-seat' (e.g. '2-14-7').
+-- A concert without rows here gets seating_capacity split evenly over its tiers in rows of 50 when its seat
+-- map is first loaded, and that split is saved here so later price or capacity changes never move sold seats.
+-- A tier added after that needs its own row here before its seats can be sold.
+CREATE TABLE IF NOT EXISTS SeatSections (
+    concert_code INT NOT NULL,
+    ticket_type VARCHAR(50) NOT NULL,
+    section_number INT NOT NULL,
+    row_count INT NOT NULL CHECK (row_count > 0),
+    seats_per_row INT NOT NULL CHECK (seats_per_row > 0),
+    PRIMARY KEY (concert_code, ticket_type),
+    UNIQUE (concert_code, section_number),
+    FOREIGN KEY (ticket_type, concert_code) REFERENCES Prices(ticket_type, concert_code) ON DELETE CASCADE
+);
+
+-- Monthly totals per transaction type behind the Annual Sales report, updated in the same database
+-- transaction as every sale, refund, transfer and cancellation. Each total is spread over a few slots
+-- to avoid one hot row; readers sum them. The key leads with (year, type) so a report is one range read.
+CREATE TABLE IF NOT EXISTS MonthlySales (
+    sales_year SMALLINT NOT NULL,
+    sales_month TINYINT NOT NULL,
+    transaction_type ENUM('buy', 'refund', 'transfer', 'cancel') NOT NULL,
+    slot TINYINT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    transaction_count INT NOT NULL DEFAULT 0,
+    -- Tickets the transactions covered: a sale, refund or transfer of several seats is one transaction
+    ticket_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_year, transaction_type, sales_month, slot)
+);
+
 
 
 
@@ -341,3 +418,31 @@ VALUES
 (1, 10, 'VIP', '1', 30000.00),
 (1, 11, 'VIP', '2', 30000.00),
 (1, 12, 'VIP', '3', 30000.00);
+
+-- Start the ownership ledger from the tickets' current transactions. A ticket transferred before the ledger
+-- existed starts at its recipient, since Tickets no longer records who bought it. Refunds keeps neither the
+-- refund transaction nor a date, so a refunded ticket's second entry points at and is dated by its purchase.
+INSERT INTO TicketOwnership (ticket_code, seq, customer_code, transaction_code, event_type, event_time)
+SELECT Tickets.ticket_code, 1, Transactions.customer_code, Transactions.transaction_code,
+       Transactions.transaction_type, Transactions.transaction_date
+FROM Tickets
+JOIN Transactions ON Transactions.transaction_code = Tickets.transaction_code;
+
+INSERT INTO TicketOwnership (ticket_code, seq, customer_code, transaction_code, event_type, event_time)
+SELECT Tickets.ticket_code, 2, Transactions.customer_code, Transactions.transaction_code, 'refund',
+       Transactions.transaction_date
+FROM Tickets
+JOIN Transactions ON Transactions.transaction_code = Tickets.transaction_code
+WHERE EXISTS (SELECT 1 FROM Refunds WHERE Refunds.ticket_code = Tickets.ticket_code);
+
+-- Build the monthly sales rollup from the seeded transactions; the ledger above supplies their ticket counts
+INSERT INTO MonthlySales (sales_year, sales_month, transaction_type, slot, total_amount, transaction_count,
+                          ticket_count)
+SELECT YEAR(transaction_date), MONTH(transaction_date), transaction_type, 0,
+       COALESCE(SUM(total_amount), 0), COUNT(*),
+       SUM(GREATEST(1, (SELECT COUNT(*) FROM TicketOwnership o
+                        WHERE o.transaction_code = Transactions.transaction_code
+                          AND o.event_type = Transactions.transaction_type)))
+FROM Transactions
+WHERE transaction_type IS NOT NULL
+GROUP BY YEAR(transaction_date), MONTH(transaction_date), transaction_type;
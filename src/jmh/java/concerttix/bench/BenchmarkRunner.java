@@ -0,0 +1,77 @@
+package concerttix.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the JMH suite and stores its results as benchmarks/<commit>.json, so regressions between commits show
+// up by comparing files. JMH's own options apply, e.g.
+//   java -Dconcerttix.bench.password=secret -jar target/benchmarks.jar -p datasetTickets=1000,100000 topSales
+// The forked benchmark JVMs get this JVM's options, -Dconcerttix.bench.* settings included.
+public class BenchmarkRunner {
+
+    static final Path RESULTS = Path.of(System.getProperty("concerttix.bench.results", "benchmarks"));
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            Main.main(args); // Nothing is run, so there are no results to keep
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (!commandLine.getResult().hasValue()) {
+            Files.createDirectories(RESULTS);
+            Path results = RESULTS.resolve(gitCommit() + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(results.toString());
+            System.out.println("Results will be written to " + results.toAbsolutePath());
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    // Short hash of HEAD, marked "-dirty" when the working tree has uncommitted changes
+    private static String gitCommit() {
+        try {
+            String hash = runGit("rev-parse", "--short", "HEAD");
+            if (hash.isEmpty()) {
+                return "unknown";
+            }
+            return runGit("status", "--porcelain", "--untracked-files=no").isEmpty() ? hash : hash + "-dirty";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    private static String runGit(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append('\n');
+            }
+        }
+        return process.waitFor() == 0 ? output.toString().trim() : "";
+    }
+}
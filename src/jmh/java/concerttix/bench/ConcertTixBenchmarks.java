@@ -0,0 +1,115 @@
+package concerttix.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+// The transaction and report paths, timed against a local concerttix database seeded with datasetTickets
+// sold tickets per trial. The dataset and the calls come from the project's Benchmarks class, which lives in
+// the default package and is therefore reached by name. Every call is a database round trip of a
+// millisecond or more, so its untimed per-invocation setup does not distort the samples.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcertTixBenchmarks {
+
+    @Param({"1000", "10000", "100000"})
+    public int datasetTickets;
+
+    private AutoCloseable dataset;
+    private MethodHandle prepare;
+
+    @Setup(Level.Trial)
+    public void seed() throws Throwable {
+        Class<?> benchmarks = Class.forName("Benchmarks");
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        prepare = lookup.findVirtual(benchmarks, "prepare", MethodType.methodType(Callable.class, String.class));
+        // Invoked through a handle, so a failure to seed surfaces as its own SQLException
+        dataset = (AutoCloseable) lookup.findConstructor(benchmarks, MethodType.methodType(void.class, int.class))
+                .invoke(datasetTickets);
+    }
+
+    @TearDown(Level.Trial)
+    public void remove() throws Exception {
+        dataset.close();
+    }
+
+    // The call to time for one invocation of the running benchmark, named after its method
+    @State(Scope.Thread)
+    public static class Call {
+
+        Callable<?> call;
+
+        @Setup(Level.Invocation)
+        public void prepare(ConcertTixBenchmarks suite, BenchmarkParams params) throws Throwable {
+            String benchmark = params.getBenchmark();
+            call = (Callable<?>) suite.prepare.invoke(suite.dataset, benchmark.substring(benchmark.lastIndexOf('.') + 1));
+        }
+    }
+
+    @Benchmark
+    public Object sellTickets(Call call) throws Exception {
+        return call.call.call();
+    }
+
+    // Refunds a block of 10 tickets sold to the customer during setup
+    @Benchmark
+    public Object refundTickets(Call call) throws Exception {
+        return call.call.call();
+    }
+
+    // Transfers a block of 5 tickets sold to the sender during setup
+    @Benchmark
+    public Object transferTickets(Call call) throws Exception {
+        return call.call.call();
+    }
+
+    // Every call cancels a freshly seeded concert, so only a few are run
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Object cancelConcert(Call call) throws Exception {
+        return call.call.call();
+    }
+
+    @Benchmark
+    public Object annualSales(Call call) throws Exception {
+        return call.call.call();
+    }
+
+    @Benchmark
+    public Object concertAnalysis(Call call) throws Exception {
+        return call.call.call();
+    }
+
+    @Benchmark
+    public Object topSales(Call call) throws Exception {
+        return call.call.call();
+    }
+
+    @Benchmark
+    public Object customerEngagement(Call call) throws Exception {
+        return call.call.call();
+    }
+}
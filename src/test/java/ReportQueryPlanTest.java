@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+// Fails when a report query's plan reads Transactions or Tickets in full. Runs against the local concerttix
+// database given by -Dconcerttix.test.host/user/password and is skipped when none is reachable. Plans
+// depend on table statistics, so point it at a database of realistic size (see DatasetGenerator); on a
+// handful of rows the optimizer may rightly prefer a scan.
+class ReportQueryPlanTest {
+
+    static final String HOST = System.getProperty("concerttix.test.host", "localhost:3306");
+    static final String USER = System.getProperty("concerttix.test.user", "root");
+    static final String PASSWORD = System.getProperty("concerttix.test.password", "");
+    static final int YEAR = Integer.getInteger("concerttix.test.year", LocalDate.now().getYear());
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void connect() {
+        try {
+            connection = DriverManager.getConnection(
+                    "jdbc:mysql://" + HOST + "/concerttix?" + MyJDBC.CONNECTION_OPTIONS, USER, PASSWORD);
+        } catch (SQLException e) {
+            Assumptions.abort("No concerttix database at " + HOST + ": " + e.getMessage());
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    static Stream<String> reports() {
+        return ConcertReports.plannedQueries().keySet().stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("reports")
+    void reportDoesNotScanLargeTables(String report) throws SQLException {
+        List<ConcertReports.PlanStep> plan = ConcertReports.explain(connection,
+                ConcertReports.plannedQueries().get(report), YEAR);
+        assertFalse(plan.isEmpty(), report + " has no plan");
+        for (ConcertReports.PlanStep step : plan) {
+            assertFalse(step.scansLargeTable(), report + " reads all of " + step.table() + ": " + plan);
+        }
+    }
+}